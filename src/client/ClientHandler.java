@@ -6,12 +6,14 @@ import protocol.messages.RegisterMessage;
 import protocol.messages.game.building.GameBuildingStartMessage;
 import protocol.messages.game.ingame.GameInGameStartMessage;
 import protocol.messages.game.GameOverMessage;
+import protocol.messages.game.GameStateSyncMessage;
 import protocol.messages.game.JoinGameMessage;
 import protocol.messages.game.building.PlayerReadyStateChangeMessage;
 import protocol.messages.game.ingame.MoveMadeMessage;
 import protocol.messages.game.ingame.PlayerHoverMessage;
 import protocol.messages.game.ingame.PlayerTurnChangeMessage;
 import protocol.messages.lobby.QueueUpdateMessage;
+import protocol.transport.Frames;
 
 import javax.swing.*;
 import java.io.*;
@@ -34,6 +36,12 @@ public class ClientHandler {
     private ObjectOutputStream out;
     private ObjectInputStream in;
 
+    // Used instead of the object streams if the server speaks framed messages
+    private boolean framed;
+    private DataInputStream framedIn;
+    private OutputStream framedOut;
+    private volatile boolean binaryCodec = false;
+
     /**
      * Creates a new ClientHandler instance.
      * @param serverAddress The address of the server.
@@ -42,8 +50,17 @@ public class ClientHandler {
     public ClientHandler(String serverAddress, int port) {
         try {
             socket = new Socket(serverAddress, port);
-            out = new ObjectOutputStream(socket.getOutputStream());
-            in = new ObjectInputStream(socket.getInputStream());
+
+            BufferedInputStream input = new BufferedInputStream(socket.getInputStream());
+            framed = Frames.isFramed(input);
+
+            if (framed) {
+                framedIn = new DataInputStream(input);
+                framedOut = new BufferedOutputStream(socket.getOutputStream());
+            } else {
+                out = new ObjectOutputStream(socket.getOutputStream());
+                in = new ObjectInputStream(input);
+            }
 
             this.lobbyHandler = new LobbyHandler(this);
             this.stageManager = new StageManager(this);
@@ -62,8 +79,8 @@ public class ClientHandler {
         new Thread(() -> {
             try {
                 while (socket.isConnected()) {
-                    Object received = in.readObject();
-                    Message message = (Message) received;
+                    Message message = readMessage();
+                    Object received = message;
 
                     System.out.println("Received message: " + message.toString());
 
@@ -78,6 +95,10 @@ public class ClientHandler {
                             this.username = registerMessage.getUsername();
 
                             this.getStageManager().lobbyScene.setUsername(username);
+
+                            // Acknowledge the registration; switch to the binary codec if the server offers it
+                            this.binaryCodec = framed && registerMessage.isBinaryCodec();
+                            sendMessage(new RegisterMessage(username, userId, binaryCodec));
                         }
                         case MessageType.QUEUE_UPDATE -> {
                             QueueUpdateMessage queueUpdateMessage = (QueueUpdateMessage) received;
@@ -143,6 +164,13 @@ public class ClientHandler {
 
                             this.gameHandler.onMoveMade(moveMadeMessage);
                         }
+                        case MessageType.GAME_STATE_SYNC -> {
+                            GameStateSyncMessage gameStateSyncMessage = (GameStateSyncMessage) received;
+
+                            if(this.gameHandler == null) return;
+
+                            this.gameHandler.onGameStateSync(gameStateSyncMessage);
+                        }
                         case MessageType.BUILD_READY_STATE_CHANGE -> {
                             PlayerReadyStateChangeMessage playerReadyStateChangeMessage = (PlayerReadyStateChangeMessage) received;
 
@@ -174,6 +202,17 @@ public class ClientHandler {
         }).start();
     }
 
+    /**
+     * Reads the next message from the server.
+     * @return the received message
+     * @throws IOException if the connection is lost
+     * @throws ClassNotFoundException if the received object is unknown
+     */
+    private Message readMessage() throws IOException, ClassNotFoundException {
+        if (framed) return Frames.read(framedIn);
+        return (Message) in.readObject();
+    }
+
     /**
      * Ends the current game and returns to the lobby.
      */
@@ -190,6 +229,11 @@ public class ClientHandler {
      */
     public void sendMessage(Message message) {
         try {
+            if (framed) {
+                framedOut.write(Frames.encode(message, binaryCodec));
+                framedOut.flush();
+                return;
+            }
             out.reset();
             out.writeObject(message);
             out.flush();
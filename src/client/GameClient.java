@@ -7,6 +7,7 @@ import protocol.messages.*;
 import protocol.messages.game.building.GameBuildingStartMessage;
 import protocol.messages.game.ingame.GameInGameStartMessage;
 import protocol.messages.game.GameOverMessage;
+import protocol.messages.game.GameStateSyncMessage;
 import protocol.messages.game.building.PlayerReadyStateChangeMessage;
 import protocol.messages.game.ingame.MoveMadeMessage;
 import protocol.messages.game.ingame.PlayerHoverMessage;
@@ -60,6 +61,12 @@ public interface GameClient {
      */
     void onMoveMade(MoveMadeMessage moveMadeMessage);
 
+    /**
+     * This method is called when the server sends the full game state after a resync request
+     * @param gameStateSyncMessage The message containing the full game state
+     */
+    void onGameStateSync(GameStateSyncMessage gameStateSyncMessage);
+
     /**
      * This method is called when the build ready state changes
      * @param playerReadyStateChangeMessage The message containing the build ready state information
@@ -7,9 +7,12 @@ import protocol.game.Cell;
 import protocol.game.Move;
 import protocol.messages.*;
 import protocol.GameState;
+import protocol.GameStateDelta;
 import protocol.messages.game.building.GameBuildingStartMessage;
 import protocol.messages.game.ingame.GameInGameStartMessage;
 import protocol.messages.game.GameOverMessage;
+import protocol.messages.game.GameStateSyncMessage;
+import protocol.messages.game.GameStateSyncRequestMessage;
 import protocol.messages.game.LeaveGameMessage;
 import protocol.messages.game.building.PlayerReadyStateChangeMessage;
 import protocol.messages.game.building.PlayerReadyMessage;
@@ -30,6 +33,7 @@ public class GameHandler implements GameClient {
     private ArrayList<Ship> playersShips;
 
     private boolean isInGame = false;
+    private boolean awaitingSync = false; // A full game state was requested after a gap in the deltas
 
     /**
      * Initializes the GameHandler
@@ -116,10 +120,7 @@ public class GameHandler implements GameClient {
      */
     @Override
     public void onTurnChange(PlayerTurnChangeMessage playerTurnChangeMessage) {
-
-        boolean playerTurnHasChanged = this.gameState.isPlayersTurn(this.clientHandler.getUserId()) != playerTurnChangeMessage.getGameState().isPlayersTurn(this.clientHandler.getUserId());
-
-        this.gameState = playerTurnChangeMessage.getGameState();
+        if(!applyDelta(playerTurnChangeMessage.getDelta())) return;
 
         boolean isPlayersTurn = this.gameState.isPlayersTurn(this.clientHandler.getUserId());
 
@@ -140,15 +141,13 @@ public class GameHandler implements GameClient {
     public void onMoveMade(MoveMadeMessage moveMadeMessage) {
         if(!this.gameState.getStatus().equals(GameState.GameStatus.IN_GAME)) return;
 
-        boolean extendedTime = moveMadeMessage.getGameState().getPlayersTurnEnd().equals(this.gameState.getPlayersTurnEnd());
+        boolean extendedTime = moveMadeMessage.getDelta().getPlayersTurnEnd().equals(this.gameState.getPlayersTurnEnd());
 
-        this.gameState = moveMadeMessage.getGameState();
+        if(!applyDelta(moveMadeMessage.getDelta())) return;
 
         if(!extendedTime) this.clientHandler.getStageManager().gameIngameScene.extendCurrentTurn(this.gameState.getPlayersTurnEnd());
 
         ClientPlayer player = this.gameState.getPlayer(this.clientHandler.getUserId());
-        ClientPlayer opponent = this.gameState.getOpponent(this.clientHandler.getUserId());
-
 
         this.clientHandler.getStageManager().gameIngameScene.opponentBoard.setPlacedShips(player.getUncoveredShips());
         this.clientHandler.getStageManager().gameIngameScene.setPlayerEnergy(player.getEnergy());
@@ -157,6 +156,49 @@ public class GameHandler implements GameClient {
         updateMoves();
     }
 
+    /**
+     * Triggers when the server answers a resync request with the full game state
+     * @param gameStateSyncMessage The message containing the full game state
+     */
+    @Override
+    public void onGameStateSync(GameStateSyncMessage gameStateSyncMessage) {
+        this.gameState = gameStateSyncMessage.getGameState();
+        this.awaitingSync = false;
+
+        if(!this.gameState.getStatus().equals(GameState.GameStatus.IN_GAME)) return;
+        if(this.clientHandler.getStageManager().gameIngameScene == null) return;
+
+        ClientPlayer player = this.gameState.getPlayer(this.clientHandler.getUserId());
+
+        this.clientHandler.getStageManager().gameIngameScene.toggleTurn(this.gameState.isPlayersTurn(this.clientHandler.getUserId()));
+        this.clientHandler.getStageManager().gameIngameScene.extendCurrentTurn(this.gameState.getPlayersTurnEnd());
+        this.clientHandler.getStageManager().gameIngameScene.opponentBoard.setPlacedShips(player.getUncoveredShips());
+        this.clientHandler.getStageManager().gameIngameScene.setPlayerEnergy(player.getEnergy());
+
+        updateMoves();
+    }
+
+    /**
+     * Applies a delta to the local game state.
+     * If deltas are missing, the delta is dropped and the full game state is requested from the server.
+     * @param delta The delta received from the server
+     * @return true if the delta was applied, false otherwise
+     */
+    private boolean applyDelta(GameStateDelta delta) {
+        if(delta.getSequence() <= this.gameState.getSequence()) return false; // Already contained in the current state
+
+        if(this.awaitingSync) return false;
+
+        if(!this.gameState.isNextDelta(delta)) {
+            this.awaitingSync = true;
+            clientHandler.sendMessage(new GameStateSyncRequestMessage(this.gameState.getSequence()));
+            return false;
+        }
+
+        this.gameState = this.gameState.applyDelta(delta);
+        return true;
+    }
+
     /**
      * Update the moves of the player and opponent
      */
@@ -1,10 +1,8 @@
 package protocol;
 
-import protocol.game.Cell;
 import protocol.game.Move;
-import utils.ItemManager;
+import utils.Log;
 
-import java.awt.*;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Date;
@@ -40,6 +38,7 @@ public class GameState implements Serializable  {
 
     private final int size;
     private int currentGameRound = 0;
+    private long sequence = 0; // number of the last GameStateDelta applied to this state
 
     private GameStatus status = GameStatus.LOBBY_WAITING;
 
@@ -67,6 +66,7 @@ public class GameState implements Serializable  {
         this.status = gameState.status;
         this.availableShips = new ArrayList<>(gameState.availableShips);
         this.currentGameRound = gameState.currentGameRound;
+        this.sequence = gameState.sequence;
         this.id = gameState.id;
         this.gameOptions = gameState.gameOptions;
     }
@@ -75,10 +75,11 @@ public class GameState implements Serializable  {
      * Constructor for creating a new GameState with the given parameters.
      * @param gameOptions The game options to be used
      * @param ships The list of ships to be used
+     * @param sessionCode The code other players use to join the game
      */
-    public GameState(GameOptions gameOptions, ArrayList<Ship> ships) {
+    public GameState(GameOptions gameOptions, ArrayList<Ship> ships, int sessionCode) {
         this.size = gameOptions.getBoardSize();
-        this.sessionCode = generateSessionCode();
+        this.sessionCode = sessionCode;
         this.id = UUID.randomUUID();
 
         this.gameOptions = gameOptions;
@@ -86,13 +87,35 @@ public class GameState implements Serializable  {
         this.availableShips = ships;
     }
 
+    /**
+     * Constructor for restoring a GameState that was received over the wire.
+     * Unlike {@link #setPlayerB(ClientPlayer)}, the turn flags of the players are kept as they are.
+     * @param id The id of the game
+     * @param sessionCode The session code of the game
+     * @param gameOptions The game options of the game
+     * @param ships The list of available ships
+     * @param playerA Player A or null
+     * @param playerB Player B or null
+     * @param currentGameRound The current game round
+     */
+    public GameState(UUID id, int sessionCode, GameOptions gameOptions, ArrayList<Ship> ships, ClientPlayer playerA, ClientPlayer playerB, int currentGameRound) {
+        this.id = id;
+        this.sessionCode = sessionCode;
+        this.size = gameOptions.getBoardSize();
+        this.gameOptions = gameOptions;
+        this.availableShips = ships;
+        this.playerA = playerA;
+        this.playerB = playerB;
+        this.currentGameRound = currentGameRound;
+    }
+
     public void setPlayerA(ClientPlayer playerA) {
-        System.out.println("[Game " + this.getId() + "] Setting player A: " + playerA.getName() + " (" + playerA.getId() + ")");
+        Log.debug("Game " + getId(), () -> "Setting player A: " + playerA.getName() + " (" + playerA.getId() + ")");
         this.playerA = playerA;
     }
 
     public void setPlayerB(ClientPlayer playerB) {
-        System.out.println("[Game " + this.getId() + "] Setting player B: " + playerB.getName() + " (" + playerB.getId() + ")");
+        Log.debug("Game " + getId(), () -> "Setting player B: " + playerB.getName() + " (" + playerB.getId() + ")");
         this.playerB = playerB;
 
         // Randomly assign turn to one of the players
@@ -132,144 +155,6 @@ public class GameState implements Serializable  {
         return null;
     }
 
-    /**
-     * Updates the hit list for both players based on their moves and the ships of the opponent.
-     * @param shipsA the ships of player A
-     * @param shipsB the ships of player B
-     */
-    public void updateHitList(ArrayList<Ship> shipsA, ArrayList<Ship> shipsB) {
-        int boardSize = getBoardSize();
-        // For each move of player A, check against the ships of player B
-        for (Move move : playerA.getMoves()) {
-            move.computeAffectedCells(boardSize);
-            for (Cell cell : move.getAffectedCells()) {
-                boolean hit = false;
-                for (Ship ship : shipsB) {
-                    ArrayList<Point> occupiedCells = ship.getOccupiedCells();
-                    for (Point p : occupiedCells) {
-                        if (p.x == cell.getX() && p.y == cell.getY()) {
-                            hit = true;
-                            break;
-                        }
-                    }
-                    if (hit) break;
-                }
-                cell.setHit(hit);
-            }
-        }
-
-        // For each move of player B, check against the ships of player A
-        for (Move move : playerB.getMoves()) {
-            move.computeAffectedCells(boardSize);
-            for (Cell cell : move.getAffectedCells()) {
-                boolean hit = false;
-                for (Ship ship : shipsA) {
-                    ArrayList<Point> occupiedCells = ship.getOccupiedCells();
-                    for (Point p : occupiedCells) {
-                        if (p.x == cell.getX() && p.y == cell.getY()) {
-                            hit = true;
-                            break;
-                        }
-                    }
-                    if (hit) break;
-                }
-                cell.setHit(hit);
-            }
-        }
-    }
-
-    /**
-     * Loads the radar information for both players based on their moves and the ships of the opponent.
-     * @param shipsA the ships of player A
-     * @param shipsB the ships of player B
-     */
-    public void loadRadars(ArrayList<Ship> shipsA, ArrayList<Ship> shipsB) {
-        for (Move move : playerA.getMoves()) {
-            if(move.getRadarItem() != null) {
-                move.setRadarShipsIn3x3Area(ItemManager.getAmountOfShipsIn3x3Area(shipsB, move.getX(), move.getY()));
-            }
-        }
-
-        for (Move move : playerB.getMoves()) {
-            if(move.getRadarItem() != null) {
-                move.setRadarShipsIn3x3Area(ItemManager.getAmountOfShipsIn3x3Area(shipsA, move.getX(), move.getY()));
-            }
-        }
-    }
-
-    /**
-     * Checks if the given player has sunk all ships of the opponent.
-     * @param player The player who made the move
-     * @param targetShips The opponent's ships
-     * @return true, if all ships are sunk
-     */
-    public ArrayList<Ship> getSunkenShips(ClientPlayer player, ArrayList<Ship> targetShips) {
-
-        ArrayList<Ship> sunkenShips = new ArrayList<>();
-        ArrayList<Point> totalHitCells = new ArrayList<>();
-
-        for(Move move : player.getMoves()) {
-            move.computeAffectedCells(this.getBoardSize());
-            ArrayList<Cell> affectedCells = move.getAffectedCells();
-
-            for (Cell cell : affectedCells) {
-                totalHitCells.add(new Point(cell.getX(), cell.getY()));
-            }
-        }
-
-        for (Ship ship : targetShips) {
-            ArrayList<Point> hitCells = new ArrayList<>();
-            for (Point p : ship.getOccupiedCells()) {
-                for (Point c : totalHitCells) {
-                    if (p.x == c.x && p.y == c.y) {
-                        hitCells.add(p);
-                        break;
-                    }
-                }
-            }
-
-            if (hitCells.size() == ship.getOccupiedCells().size()) {
-                sunkenShips.add(ship);
-            }
-        }
-
-        return sunkenShips;
-    }
-
-    /**
-     * Checks if the given player has sunk all ships of the opponent.
-     * @param player The player who made the move
-     * @param targetShips The opponent's ships
-     * @return true, if all ships are sunk
-     */
-    public boolean hasPlayerSunkAllShips(ClientPlayer player, ArrayList<Ship> targetShips) {
-        ArrayList<Ship> sunkenShips = getSunkenShips(player, targetShips);
-
-        return (sunkenShips.size() == this.availableShips.size());
-    }
-
-    /**
-     * Checks if the given player has no more moves possible.
-     * @param player The player who made the move
-     * @return true, if no more moves are possible
-     */
-    public boolean noMoreMovesPossible(ClientPlayer player) {
-        ArrayList<Point> totalHitCells = new ArrayList<>();
-
-        for(Move move : player.getMoves()) {
-            move.computeAffectedCells(this.getBoardSize());
-            ArrayList<Cell> affectedCells = move.getAffectedCells();
-
-            for (Cell cell : affectedCells) {
-                totalHitCells.add(new Point(cell.getX(), cell.getY()));
-            }
-        }
-
-        int boardSizeAmount = this.getBoardSize() * this.getBoardSize();
-
-        return totalHitCells.size() >= boardSizeAmount;
-    }
-
     /**
      * Checks if the given player is a player in the game.
      * @param player The UUID of the player to check
@@ -385,6 +270,46 @@ public class GameState implements Serializable  {
         nextGameRound();
     }
 
+    /**
+     * Creates the state that results from applying a delta to this state.
+     * The delta must directly follow this state, see {@link #isNextDelta(GameStateDelta)}.
+     * @param delta the delta to apply
+     * @return the new state
+     */
+    public GameState applyDelta(GameStateDelta delta) {
+        GameState next = new GameState(this);
+
+        if (delta.getMove() != null) {
+            next.addMove(delta.getMover(), delta.getMove());
+        }
+
+        next.playerA.setEnergy(delta.getEnergyA());
+        next.playerB.setEnergy(delta.getEnergyB());
+        next.playerA.getUncoveredShips().addAll(delta.getNewlySunkShipsA());
+        next.playerB.getUncoveredShips().addAll(delta.getNewlySunkShipsB());
+
+        if (delta.getTurnPlayer() != null) {
+            next.playerA.setTurn(next.playerA.isPlayer(delta.getTurnPlayer()));
+            next.playerB.setTurn(next.playerB.isPlayer(delta.getTurnPlayer()));
+        }
+
+        next.playersTurnStart = delta.getPlayersTurnStart();
+        next.playersTurnEnd = delta.getPlayersTurnEnd();
+        next.currentGameRound = delta.getCurrentGameRound();
+        next.sequence = delta.getSequence();
+
+        return next;
+    }
+
+    /**
+     * Checks if the given delta directly follows this state.
+     * @param delta the delta to check
+     * @return true if the delta can be applied, false if deltas are missing
+     */
+    public boolean isNextDelta(GameStateDelta delta) {
+        return delta.getSequence() == this.sequence + 1;
+    }
+
     /**
      * Adds a move to the given player.
      * @param player the UUID of the player to add the move to
@@ -430,6 +355,18 @@ public class GameState implements Serializable  {
         return sessionCode;
     }
 
+    public int getCurrentGameRound() {
+        return currentGameRound;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
     private void nextGameRound() {
         currentGameRound++;
     }
@@ -470,10 +407,6 @@ public class GameState implements Serializable  {
         this.playersTurnEnd = playersTurnEnd;
     }
 
-    private int generateSessionCode() {
-        return (int) (Math.random() * 900000) + 100000;
-    }
-
     public GameOptions getGameOptions() {
         return gameOptions;
     }
@@ -492,6 +425,7 @@ public class GameState implements Serializable  {
                 ", availableShips=" + availableShips +
                 ", size=" + size +
                 ", currentGameRound=" + currentGameRound +
+                ", sequence=" + sequence +
                 ", status=" + status +
                 ", gameOptions=" + gameOptions +
                 '}';
@@ -0,0 +1,170 @@
+package protocol;
+
+import protocol.game.Move;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * The difference between two consecutive in-game states.
+ * Instead of the full GameState, MoveMadeMessage and PlayerTurnChangeMessage carry a delta with the new move,
+ * its hit results, the energy of both players, newly sunk ships and the turn deadline.
+ * Deltas are numbered; a client applies a delta only to the state with the preceding sequence number
+ * and requests a full resync if it detects a gap.
+ */
+public class GameStateDelta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long sequence;
+
+    private final UUID mover;
+    private final Move move;
+
+    private final int energyA, energyB;
+    private final ArrayList<Ship> newlySunkShipsA, newlySunkShipsB;
+
+    private final UUID turnPlayer;
+    private final Date playersTurnStart, playersTurnEnd;
+    private final int currentGameRound;
+
+    /**
+     * Creates a new GameStateDelta with the given values.
+     * @param sequence the sequence number of the resulting state
+     * @param mover the player who made the move or null if there is none
+     * @param move the new move including its hit results or null if there is none
+     * @param energyA the energy of player A
+     * @param energyB the energy of player B
+     * @param newlySunkShipsA the ships newly uncovered by player A
+     * @param newlySunkShipsB the ships newly uncovered by player B
+     * @param turnPlayer the player whose turn it is or null if there is none
+     * @param playersTurnStart the start of the current turn
+     * @param playersTurnEnd the deadline of the current turn
+     * @param currentGameRound the current game round
+     */
+    public GameStateDelta(long sequence, UUID mover, Move move, int energyA, int energyB,
+                          ArrayList<Ship> newlySunkShipsA, ArrayList<Ship> newlySunkShipsB,
+                          UUID turnPlayer, Date playersTurnStart, Date playersTurnEnd, int currentGameRound) {
+        this.sequence = sequence;
+        this.mover = mover;
+        this.move = move;
+        this.energyA = energyA;
+        this.energyB = energyB;
+        this.newlySunkShipsA = newlySunkShipsA;
+        this.newlySunkShipsB = newlySunkShipsB;
+        this.turnPlayer = turnPlayer;
+        this.playersTurnStart = playersTurnStart;
+        this.playersTurnEnd = playersTurnEnd;
+        this.currentGameRound = currentGameRound;
+    }
+
+    /**
+     * Computes the delta that turns one state into the next.
+     * @param before the state the client already has
+     * @param after the new state, its sequence number is used for the delta
+     * @param mover the player who made the move or null if there is none
+     * @param move the move that was added to the state or null if there is none
+     * @return the delta
+     */
+    public static GameStateDelta between(GameState before, GameState after, UUID mover, Move move) {
+        ClientPlayer turnPlayer = after.getCurrentTurnPlayer();
+
+        return new GameStateDelta(
+                after.getSequence(),
+                mover,
+                move,
+                after.getPlayerA().getEnergy(),
+                after.getPlayerB().getEnergy(),
+                newlySunkShips(before.getPlayerA(), after.getPlayerA()),
+                newlySunkShips(before.getPlayerB(), after.getPlayerB()),
+                turnPlayer != null ? turnPlayer.getId() : null,
+                after.getPlayersTurnStart(),
+                after.getPlayersTurnEnd(),
+                after.getCurrentGameRound()
+        );
+    }
+
+    /**
+     * Returns the ships the player uncovered between the two states.
+     * @param before the player in the previous state
+     * @param after the player in the new state
+     * @return the newly uncovered ships
+     */
+    private static ArrayList<Ship> newlySunkShips(ClientPlayer before, ClientPlayer after) {
+        ArrayList<Ship> newlySunk = new ArrayList<>();
+        for (Ship ship : after.getUncoveredShips()) {
+            boolean known = false;
+            for (Ship old : before.getUncoveredShips()) {
+                if (old.getId() == ship.getId()) {
+                    known = true;
+                    break;
+                }
+            }
+            if (!known) newlySunk.add(ship);
+        }
+        return newlySunk;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public UUID getMover() {
+        return mover;
+    }
+
+    public Move getMove() {
+        return move;
+    }
+
+    public int getEnergyA() {
+        return energyA;
+    }
+
+    public int getEnergyB() {
+        return energyB;
+    }
+
+    public ArrayList<Ship> getNewlySunkShipsA() {
+        return newlySunkShipsA;
+    }
+
+    public ArrayList<Ship> getNewlySunkShipsB() {
+        return newlySunkShipsB;
+    }
+
+    public UUID getTurnPlayer() {
+        return turnPlayer;
+    }
+
+    public Date getPlayersTurnStart() {
+        return playersTurnStart;
+    }
+
+    public Date getPlayersTurnEnd() {
+        return playersTurnEnd;
+    }
+
+    public int getCurrentGameRound() {
+        return currentGameRound;
+    }
+
+    @Override
+    public String toString() {
+        return "GameStateDelta{" +
+                "sequence=" + sequence +
+                ", mover=" + mover +
+                ", move=" + move +
+                ", energyA=" + energyA +
+                ", energyB=" + energyB +
+                ", newlySunkShipsA=" + newlySunkShipsA +
+                ", newlySunkShipsB=" + newlySunkShipsB +
+                ", turnPlayer=" + turnPlayer +
+                ", playersTurnStart=" + playersTurnStart +
+                ", playersTurnEnd=" + playersTurnEnd +
+                ", currentGameRound=" + currentGameRound +
+                '}';
+    }
+}
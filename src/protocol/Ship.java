@@ -3,6 +3,8 @@ package protocol;
 import java.awt.Point;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class Ship implements Serializable {
 
@@ -29,6 +31,9 @@ public class Ship implements Serializable {
     private boolean isSunk;
     private int hits;
 
+    // The cells at the current position, computed on first use and dropped when the position or orientation changes
+    private transient List<Point> occupiedCells;
+
     /**
      * Constructor for creating a ship with the given parameters.
      * @param id the ID of the ship @unique
@@ -80,19 +85,29 @@ public class Ship implements Serializable {
         this.width = other.width;
         this.isSunk = other.isSunk;
         this.hits = other.hits;
+        this.occupiedCells = other.occupiedCells;
     }
 
     /**
-     * Returns the number of cells occupied by the ship.
+     * Returns the cells occupied by the ship. The list is cached and unmodifiable, its points must not be changed.
      */
-    public ArrayList<Point> getOccupiedCells() {
-        return getOccupiedCellsAt(this.x, this.y);
+    public List<Point> getOccupiedCells() {
+        if (occupiedCells == null) {
+            occupiedCells = Collections.unmodifiableList(computeOccupiedCells(this.x, this.y));
+        }
+        return occupiedCells;
     }
 
     /**
      * Provides the list of cells that would be occupied if the ship is placed at the anchor point (anchorX, anchorY).
+     * At the current position of the ship this is the cached list of {@link #getOccupiedCells()}, which must not be changed.
      */
-    public ArrayList<Point> getOccupiedCellsAt(int anchorX, int anchorY) {
+    public List<Point> getOccupiedCellsAt(int anchorX, int anchorY) {
+        if (anchorX == this.x && anchorY == this.y) return getOccupiedCells();
+        return computeOccupiedCells(anchorX, anchorY);
+    }
+
+    private ArrayList<Point> computeOccupiedCells(int anchorX, int anchorY) {
         ArrayList<Point> cells = new ArrayList<>();
         switch (orientation) {
             case EAST:
@@ -153,16 +168,19 @@ public class Ship implements Serializable {
 
     public void setOrientation(Orientation orientation) {
         this.orientation = orientation;
+        this.occupiedCells = null;
     }
 
     public void setX(int x) {
         this.x = x;
         this.isPlaced = true;
+        this.occupiedCells = null;
     }
 
     public void setY(int y) {
         this.y = y;
         this.isPlaced = true;
+        this.occupiedCells = null;
     }
 
     @Override
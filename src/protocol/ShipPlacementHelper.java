@@ -1,5 +1,7 @@
 package protocol;
 
+import utils.Log;
+
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -61,7 +63,7 @@ public class ShipPlacementHelper {
         boolean areShipsTheSame = true;
 
         if (placedShips.size() > availableShips.size()) {
-            System.out.println("Invalid number of ships");
+            Log.debug("ShipPlacementHelper", "Invalid number of ships");
             return false;
         }
 
@@ -81,7 +83,7 @@ public class ShipPlacementHelper {
 
                 // Update the ship's position
                 if (isCollision(ship, boardSize, ship.getY(), ship.getX(), remainingShips)) {
-                    System.out.println("Collision detected");
+                    Log.debug("ShipPlacementHelper", "Collision detected");
                 }
             }
             if (!found) {
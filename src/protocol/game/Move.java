@@ -117,6 +117,14 @@ public class Move implements Serializable {
         return affectedCells;
     }
 
+    /**
+     * Sets the affected cells, e.g. when the move was received over the wire.
+     * @param affectedCells the affected cells including their hit state
+     */
+    public void setAffectedCells(ArrayList<Cell> affectedCells) {
+        this.affectedCells = affectedCells;
+    }
+
     public int getRadarShipsIn3x3Area() {
         return radarShipsIn3x3Area;
     }
@@ -5,7 +5,7 @@ public enum MessageType {
     /**
      * Server -> Client
      */
-    REGISTER,
+    REGISTER, // also sent back by the client as acknowledgement
     QUEUE_UPDATE,
 
     JOIN_GAME,
@@ -15,6 +15,7 @@ public enum MessageType {
     TURN_CHANGE,
     MOVE_MADE,
     GAME_OVER,
+    GAME_STATE_SYNC,
     ERROR,
 
     /**
@@ -29,6 +30,7 @@ public enum MessageType {
     PLAYER_READY,
     PLAYER_MOVE,
     LEAVE_GAME,
+    GAME_STATE_SYNC_REQUEST,
 
     /**
      * Client -> Server; then Server -> Client (2x)
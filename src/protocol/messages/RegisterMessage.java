@@ -6,11 +6,14 @@ import java.util.UUID;
  * This class represents a message sent to the server when a player registers.
  * It contains the player's username and UUID.
  * It will be sent from the server to the client to confirm the registration.
+ * The client answers with a RegisterMessage of its own, which acknowledges the registration
+ * and tells the server whether the client wants to receive the binary codec.
  */
 
 public class RegisterMessage extends Message {
     private final String username;
     private final UUID userId;
+    private final boolean binaryCodec;
 
     /**
      * Constructor for RegisterMessage
@@ -18,9 +21,20 @@ public class RegisterMessage extends Message {
      * @param userId The UUID of the player
      */
     public RegisterMessage(String username, UUID userId) {
+        this(username, userId, false);
+    }
+
+    /**
+     * Constructor for RegisterMessage
+     * @param username The username of the player
+     * @param userId The UUID of the player
+     * @param binaryCodec Server -> Client: the binary codec is supported; Client -> Server: the binary codec is requested
+     */
+    public RegisterMessage(String username, UUID userId, boolean binaryCodec) {
         super(MessageType.REGISTER);
         this.username = username;
         this.userId = userId;
+        this.binaryCodec = binaryCodec;
     }
 
     public String getUsername() {
@@ -31,11 +45,16 @@ public class RegisterMessage extends Message {
         return userId;
     }
 
+    public boolean isBinaryCodec() {
+        return binaryCodec;
+    }
+
     @Override
     public String toString() {
         return "RegisterMessage{" +
                 "username='" + username + '\'' +
                 ", userId=" + userId +
+                ", binaryCodec=" + binaryCodec +
                 '}';
     }
 }
\ No newline at end of file
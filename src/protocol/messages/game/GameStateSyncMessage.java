@@ -0,0 +1,38 @@
+package protocol.messages.game;
+
+import protocol.GameState;
+import protocol.messages.Message;
+import protocol.messages.MessageType;
+
+/**
+ * This is the GameStateSyncMessage which is sent from the server to the client in response to a GameStateSyncRequestMessage.
+ * It contains the full game state, including the sequence number of the last delta, and replaces the state of the client.
+ */
+
+public class GameStateSyncMessage extends Message {
+
+    private static final long serialVersionUID = 1L;
+
+    private final GameState gameState;
+
+    /**
+     * Creates a new GameStateSyncMessage instance.
+     * @param gameState The current game state.
+     */
+    public GameStateSyncMessage(GameState gameState) {
+        super(MessageType.GAME_STATE_SYNC);
+
+        this.gameState = gameState;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    @Override
+    public String toString() {
+        return "GameStateSyncMessage{" +
+                "gameState=" + gameState +
+                '}';
+    }
+}
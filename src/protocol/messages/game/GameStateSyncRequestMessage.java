@@ -0,0 +1,40 @@
+package protocol.messages.game;
+
+import protocol.messages.Message;
+import protocol.messages.MessageType;
+
+/**
+ * This is the GameStateSyncRequestMessage which is sent from the client to the server
+ * when the client detects a gap in the sequence of GameStateDeltas it received.
+ * A response to this message from the server will be:
+ * - GameStateSyncMessage; containing the full game state
+ * or
+ * - ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS); if the player is not in a game.
+ */
+
+public class GameStateSyncRequestMessage extends Message {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long lastSequence;
+
+    /**
+     * Creates a new GameStateSyncRequestMessage instance.
+     * @param lastSequence The sequence number of the last delta the client applied.
+     */
+    public GameStateSyncRequestMessage(long lastSequence) {
+        super(MessageType.GAME_STATE_SYNC_REQUEST);
+        this.lastSequence = lastSequence;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public String toString() {
+        return "GameStateSyncRequestMessage{" +
+                "lastSequence=" + lastSequence +
+                '}';
+    }
+}
@@ -1,13 +1,14 @@
 package protocol.messages.game.ingame;
 
-import protocol.GameState;
+import protocol.GameStateDelta;
 import protocol.messages.Message;
 import protocol.messages.MessageType;
 
 /**
  * This is the MoveMadeMessage which is sent from the server to the client when a player makes a move.
  * This Message is in response to a PlayerMoveMessage; and triggers the client to update the game state and board.
- * It contains the game state of the game that the player is a part of.
+ * It contains the changes to the game state as a GameStateDelta instead of the full game state.
+ * If the client detects a gap in the delta sequence, it requests the full state with a GameStateSyncRequestMessage.
  * This message is broadcast to all players in the game.
  */
 
@@ -15,25 +16,25 @@ public class MoveMadeMessage extends Message {
 
     public static final long serialVersionUID = 1L;
 
-    private final GameState gameState;
+    private final GameStateDelta delta;
 
     /**
      * Creates a new MoveMadeMessage instance.
-     * @param gameState The game state of the game that has started.
+     * @param delta The changes to the game state since the previous delta.
      */
-    public MoveMadeMessage(GameState gameState) {
+    public MoveMadeMessage(GameStateDelta delta) {
         super(MessageType.MOVE_MADE);
-        this.gameState = gameState;
+        this.delta = delta;
     }
 
-    public GameState getGameState() {
-        return gameState;
+    public GameStateDelta getDelta() {
+        return delta;
     }
 
     @Override
     public String toString() {
         return "MoveMadeMessage{" +
-                "gameState=" + gameState +
+                "delta=" + delta +
                 '}';
     }
 }
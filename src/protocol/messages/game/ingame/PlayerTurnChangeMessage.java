@@ -1,12 +1,13 @@
 package protocol.messages.game.ingame;
 
-import protocol.GameState;
+import protocol.GameStateDelta;
 import protocol.messages.Message;
 import protocol.messages.MessageType;
 
 /**
  * This is the PlayerTurnChangeMessage which is sent from the server to the client when the player turn changes.
- * It contains the game state of the game that the player is a part of.
+ * It contains the changes to the game state as a GameStateDelta instead of the full game state.
+ * If the client detects a gap in the delta sequence, it requests the full state with a GameStateSyncRequestMessage.
  * This message is broadcast to all players in the game in response to:
  * - PlayerMoveMessage; A Player miss;
  * OR
@@ -17,26 +18,26 @@ public class PlayerTurnChangeMessage extends Message {
 
     private static final long serialVersionUID = 1L;
 
-    private final GameState gameState;
+    private final GameStateDelta delta;
 
     /**
      * Creates a new PlayerTurnChangeMessage instance.
-     * @param gameState The game state of the game that has started.
+     * @param delta The changes to the game state since the previous delta.
      */
-    public PlayerTurnChangeMessage(GameState gameState) {
+    public PlayerTurnChangeMessage(GameStateDelta delta) {
         super(MessageType.TURN_CHANGE);
 
-        this.gameState = gameState;
+        this.delta = delta;
     }
 
-    public GameState getGameState() {
-        return gameState;
+    public GameStateDelta getDelta() {
+        return delta;
     }
 
     @Override
     public String toString() {
         return "PlayerTurnChangeMessage{" +
-                "gameState=" + gameState +
+                "delta=" + delta +
                 '}';
     }
 }
@@ -1,27 +1,49 @@
 package protocol.messages.lobby;
 
+import protocol.GameOptions;
 import protocol.messages.Message;
 import protocol.messages.MessageType;
 
 /**
  * This message is sent from the client to the server when a player wants to join the queue.
+ * An optional argument are the preferred game options; only the board size and the move time are used for matching.
  * A response to this message from the server will be a
  * - QueueUpdateMessage; which contains the size of the queue and whether the player is in the queue or not.
  * or
  * - ErrorMessage(ErrorType.ALREADY_IN_GAME); if the player is already in a game.
+ * or
+ * - ErrorMessage(ErrorType.INVALID_GAME_SIZE); if the preferred game size is invalid.
  */
 
 public class JoinQueueMessage extends Message {
 
+    private final GameOptions preferredOptions;
+
     /**
-     * Creates a new JoinQueueMessage instance.
+     * Creates a new JoinQueueMessage instance for a game with the default options.
      */
     public JoinQueueMessage() {
+        this(null);
+    }
+
+    /**
+     * Creates a new JoinQueueMessage instance.
+     * @param preferredOptions The preferred game options or null for the default options.
+     */
+    public JoinQueueMessage(GameOptions preferredOptions) {
         super(MessageType.JOIN_QUEUE);
+
+        this.preferredOptions = preferredOptions;
+    }
+
+    public GameOptions getPreferredOptions() {
+        return preferredOptions;
     }
 
     @Override
     public String toString() {
-        return super.toString();
+        return "JoinQueueMessage{" +
+                "preferredOptions=" + preferredOptions +
+                '}';
     }
 }
@@ -0,0 +1,421 @@
+package protocol.transport;
+
+import protocol.ClientPlayer;
+import protocol.ErrorType;
+import protocol.GameOptions;
+import protocol.GameState;
+import protocol.GameStateDelta;
+import protocol.Ship;
+import protocol.game.Cell;
+import protocol.game.Move;
+import protocol.game.items.AirStrikeItem;
+import protocol.game.items.RadarItem;
+import protocol.game.items.SeaBombItem;
+import protocol.messages.ErrorMessage;
+import protocol.messages.Message;
+import protocol.messages.MessageType;
+import protocol.messages.RegisterMessage;
+import protocol.messages.game.GameOverMessage;
+import protocol.messages.game.GameStateSyncMessage;
+import protocol.messages.game.GameStateSyncRequestMessage;
+import protocol.messages.game.JoinGameMessage;
+import protocol.messages.game.LeaveGameMessage;
+import protocol.messages.game.building.GameBuildingStartMessage;
+import protocol.messages.game.building.PlayerReadyMessage;
+import protocol.messages.game.building.PlayerReadyStateChangeMessage;
+import protocol.messages.game.building.PlayerUpdateShipPlacement;
+import protocol.messages.game.ingame.GameInGameStartMessage;
+import protocol.messages.game.ingame.MoveMadeMessage;
+import protocol.messages.game.ingame.PlayerHoverMessage;
+import protocol.messages.game.ingame.PlayerMoveMessage;
+import protocol.messages.game.ingame.PlayerTurnChangeMessage;
+import protocol.messages.lobby.CreateGameMessage;
+import protocol.messages.lobby.JoinGameWithCodeMessage;
+import protocol.messages.lobby.JoinQueueMessage;
+import protocol.messages.lobby.LeaveQueueMessage;
+import protocol.messages.lobby.QueueUpdateMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Hand-written binary encoding of every {@link MessageType}.
+ * A message starts with its type ordinal, followed by the fields of that type:
+ * integers are zig-zag varints, UUIDs are 16 raw bytes and cell lists are bit-packed.
+ * Negotiated per connection at RegisterMessage time; Java serialization remains the fallback.
+ */
+public class BinaryCodec {
+
+    private static final int MOVE_SHOT = 0;
+    private static final int MOVE_SEA_BOMB = 1;
+    private static final int MOVE_AIR_STRIKE_HORIZONTAL = 2;
+    private static final int MOVE_AIR_STRIKE_VERTICAL = 3;
+    private static final int MOVE_RADAR = 4;
+
+    private static final int PLAYER_READY = 1;
+    private static final int PLAYER_IN_GAME = 1 << 1;
+    private static final int PLAYER_TURN = 1 << 2;
+    private static final int PLAYER_WINNER = 1 << 3;
+
+    private static final int MAX_CELL_BITS = 11; // 2 * 11 + 2 flag bits still fit into writeBits
+
+    /**
+     * Encodes a message.
+     * @param message the message to encode
+     * @param out the writer to append the message to
+     * @throws IOException if the message contains values the codec cannot represent
+     */
+    public static void encode(Message message, BinaryWriter out) throws IOException {
+        out.writeByte(message.getType().ordinal());
+
+        switch (message.getType()) {
+            case REGISTER -> {
+                RegisterMessage register = (RegisterMessage) message;
+                out.writeString(register.getUsername());
+                out.writeUuid(register.getUserId());
+                out.writeBoolean(register.isBinaryCodec());
+            }
+            case QUEUE_UPDATE -> {
+                QueueUpdateMessage queueUpdate = (QueueUpdateMessage) message;
+                out.writeVarInt(queueUpdate.getQueueSize());
+                out.writeBoolean(queueUpdate.isPlayerInQueue());
+            }
+            case JOIN_GAME -> writeGameState(out, ((JoinGameMessage) message).getGameState());
+            case BUILDING_PHASE_STARTS -> writeGameState(out, ((GameBuildingStartMessage) message).getGameState());
+            case BUILD_READY_STATE_CHANGE -> writeGameState(out, ((PlayerReadyStateChangeMessage) message).getGameState());
+            case GAME_IN_GAME_START -> {
+                GameInGameStartMessage inGameStart = (GameInGameStartMessage) message;
+                writeGameState(out, inGameStart.getGameState());
+                writeShips(out, inGameStart.getYourShips());
+            }
+            case TURN_CHANGE -> writeDelta(out, ((PlayerTurnChangeMessage) message).getDelta());
+            case MOVE_MADE -> writeDelta(out, ((MoveMadeMessage) message).getDelta());
+            case GAME_OVER -> writeGameState(out, ((GameOverMessage) message).getGameState());
+            case GAME_STATE_SYNC -> writeGameState(out, ((GameStateSyncMessage) message).getGameState());
+            case ERROR -> out.writeByte(((ErrorMessage) message).getError().ordinal());
+            case JOIN_QUEUE -> {
+                GameOptions preferredOptions = ((JoinQueueMessage) message).getPreferredOptions();
+                out.writeBoolean(preferredOptions != null);
+                if (preferredOptions != null) writeGameOptions(out, preferredOptions);
+            }
+            case LEAVE_QUEUE, LEAVE_GAME -> {
+                // no fields
+            }
+            case CREATE_GAME -> writeGameOptions(out, ((CreateGameMessage) message).getGameOptions());
+            case JOIN_GAME_WITH_CODE -> out.writeVarInt(((JoinGameWithCodeMessage) message).getSessionCode());
+            case PLAYER_UPDATE_SHIP_PLACEMENT -> writeShips(out, ((PlayerUpdateShipPlacement) message).getShips());
+            case PLAYER_READY -> out.writeBoolean(((PlayerReadyMessage) message).isReady());
+            case PLAYER_MOVE -> writeMove(out, ((PlayerMoveMessage) message).getMove());
+            case GAME_STATE_SYNC_REQUEST -> out.writeVarLong(((GameStateSyncRequestMessage) message).getLastSequence());
+            case PLAYER_HOVER -> {
+                PlayerHoverMessage hover = (PlayerHoverMessage) message;
+                out.writeBoolean(hover.getUserId() != null);
+                if (hover.getUserId() != null) out.writeUuid(hover.getUserId());
+                out.writeVarInt(hover.getX());
+                out.writeVarInt(hover.getY());
+                writeCells(out, hover.getAffectedFields());
+            }
+        }
+    }
+
+    /**
+     * Decodes a message.
+     * @param in the reader positioned at the start of the message
+     * @return the decoded message
+     * @throws IOException if the payload is truncated or invalid
+     */
+    public static Message decode(BinaryReader in) throws IOException {
+        MessageType type = enumValue(MessageType.values(), in.readByte());
+
+        return switch (type) {
+            case REGISTER -> new RegisterMessage(in.readString(), in.readUuid(), in.readBoolean());
+            case QUEUE_UPDATE -> new QueueUpdateMessage(in.readVarInt(), in.readBoolean());
+            case JOIN_GAME -> new JoinGameMessage(readGameState(in));
+            case BUILDING_PHASE_STARTS -> new GameBuildingStartMessage(readGameState(in));
+            case BUILD_READY_STATE_CHANGE -> new PlayerReadyStateChangeMessage(readGameState(in));
+            case GAME_IN_GAME_START -> new GameInGameStartMessage(readGameState(in), readShips(in));
+            case TURN_CHANGE -> new PlayerTurnChangeMessage(readDelta(in));
+            case MOVE_MADE -> new MoveMadeMessage(readDelta(in));
+            case GAME_OVER -> new GameOverMessage(readGameState(in));
+            case GAME_STATE_SYNC -> new GameStateSyncMessage(readGameState(in));
+            case ERROR -> new ErrorMessage(enumValue(ErrorType.values(), in.readByte()));
+            case JOIN_QUEUE -> new JoinQueueMessage(in.readBoolean() ? readGameOptions(in) : null);
+            case LEAVE_QUEUE -> new LeaveQueueMessage();
+            case LEAVE_GAME -> new LeaveGameMessage();
+            case CREATE_GAME -> new CreateGameMessage(readGameOptions(in));
+            case JOIN_GAME_WITH_CODE -> new JoinGameWithCodeMessage(in.readVarInt());
+            case PLAYER_UPDATE_SHIP_PLACEMENT -> new PlayerUpdateShipPlacement(readShips(in));
+            case PLAYER_READY -> new PlayerReadyMessage(in.readBoolean());
+            case PLAYER_MOVE -> new PlayerMoveMessage(readMove(in));
+            case GAME_STATE_SYNC_REQUEST -> new GameStateSyncRequestMessage(in.readVarLong());
+            case PLAYER_HOVER -> new PlayerHoverMessage(in.readBoolean() ? in.readUuid() : null, in.readVarInt(), in.readVarInt(), readCells(in));
+        };
+    }
+
+    private static void writeGameState(BinaryWriter out, GameState state) throws IOException {
+        out.writeUuid(state.getId());
+        out.writeVarInt(state.getSessionCode());
+        writeGameOptions(out, state.getGameOptions());
+        writeShips(out, state.getAvailableShips());
+        out.writeByte(state.getStatus().ordinal());
+        out.writeVarInt(state.getCurrentGameRound());
+        out.writeVarLong(state.getSequence());
+        out.writeDate(state.getBuildGameBoardStarted());
+        out.writeDate(state.getBuildGameBoardFinished());
+        out.writeDate(state.getPlayersTurnStart());
+        out.writeDate(state.getPlayersTurnEnd());
+        writePlayer(out, state.getPlayerA());
+        writePlayer(out, state.getPlayerB());
+    }
+
+    private static GameState readGameState(BinaryReader in) throws IOException {
+        UUID id = in.readUuid();
+        int sessionCode = in.readVarInt();
+        GameOptions options = readGameOptions(in);
+        ArrayList<Ship> ships = readShips(in);
+        GameState.GameStatus status = enumValue(GameState.GameStatus.values(), in.readByte());
+        int round = in.readVarInt();
+        long sequence = in.readVarLong();
+        Date buildStarted = in.readDate();
+        Date buildFinished = in.readDate();
+        Date turnStart = in.readDate();
+        Date turnEnd = in.readDate();
+
+        GameState state = new GameState(id, sessionCode, options, ships, readPlayer(in), readPlayer(in), round);
+        state.setStatus(status);
+        state.setSequence(sequence);
+        state.setBuildGameBoardStarted(buildStarted);
+        state.setBuildGameBoardFinished(buildFinished);
+        state.setPlayersTurnStart(turnStart);
+        state.setPlayersTurnEnd(turnEnd);
+        return state;
+    }
+
+    private static void writeDelta(BinaryWriter out, GameStateDelta delta) throws IOException {
+        out.writeVarLong(delta.getSequence());
+        out.writeBoolean(delta.getMove() != null);
+        if (delta.getMove() != null) {
+            out.writeUuid(delta.getMover());
+            writeMove(out, delta.getMove());
+        }
+        out.writeVarInt(delta.getEnergyA());
+        out.writeVarInt(delta.getEnergyB());
+        writeShips(out, delta.getNewlySunkShipsA());
+        writeShips(out, delta.getNewlySunkShipsB());
+        out.writeBoolean(delta.getTurnPlayer() != null);
+        if (delta.getTurnPlayer() != null) out.writeUuid(delta.getTurnPlayer());
+        out.writeDate(delta.getPlayersTurnStart());
+        out.writeDate(delta.getPlayersTurnEnd());
+        out.writeVarInt(delta.getCurrentGameRound());
+    }
+
+    private static GameStateDelta readDelta(BinaryReader in) throws IOException {
+        long sequence = in.readVarLong();
+        UUID mover = null;
+        Move move = null;
+        if (in.readBoolean()) {
+            mover = in.readUuid();
+            move = readMove(in);
+        }
+        int energyA = in.readVarInt();
+        int energyB = in.readVarInt();
+        ArrayList<Ship> newlySunkShipsA = readShips(in);
+        ArrayList<Ship> newlySunkShipsB = readShips(in);
+        UUID turnPlayer = in.readBoolean() ? in.readUuid() : null;
+
+        return new GameStateDelta(sequence, mover, move, energyA, energyB, newlySunkShipsA, newlySunkShipsB,
+                turnPlayer, in.readDate(), in.readDate(), in.readVarInt());
+    }
+
+    private static void writeGameOptions(BinaryWriter out, GameOptions options) {
+        out.writeVarInt(options.getBoardSize());
+        out.writeVarInt(options.getBuildTime());
+        out.writeVarInt(options.getMoveTime());
+        out.writeVarInt(options.getMoveHitTimeBonus());
+        out.writeVarInt(options.getEnergyGameStart());
+        out.writeVarInt(options.getEnergyTurnBonus());
+        out.writeVarInt(options.getEnergyShipHit());
+    }
+
+    private static GameOptions readGameOptions(BinaryReader in) throws IOException {
+        GameOptions options = new GameOptions();
+        options.setBoardSize(in.readVarInt());
+        options.setBuildTime(in.readVarInt());
+        options.setMoveTime(in.readVarInt());
+        options.setMoveHitTimeBonus(in.readVarInt());
+        options.setEnergyGameStart(in.readVarInt());
+        options.setEnergyTurnBonus(in.readVarInt());
+        options.setEnergyShipHit(in.readVarInt());
+        return options;
+    }
+
+    private static void writePlayer(BinaryWriter out, ClientPlayer player) throws IOException {
+        out.writeBoolean(player != null);
+        if (player == null) return;
+
+        out.writeUuid(player.getId());
+        out.writeString(player.getName());
+        out.writeByte((player.isReady() ? PLAYER_READY : 0)
+                | (player.isInGame() ? PLAYER_IN_GAME : 0)
+                | (player.isTurn() ? PLAYER_TURN : 0)
+                | (player.isWinner() ? PLAYER_WINNER : 0));
+        out.writeVarInt(player.getEnergy());
+
+        out.writeVarInt(player.getMoves().size());
+        for (Move move : player.getMoves()) {
+            writeMove(out, move);
+        }
+        writeShips(out, player.getUncoveredShips());
+    }
+
+    private static ClientPlayer readPlayer(BinaryReader in) throws IOException {
+        if (!in.readBoolean()) return null;
+
+        ClientPlayer player = new ClientPlayer(in.readUuid(), in.readString());
+        int flags = in.readByte();
+        player.setReady((flags & PLAYER_READY) != 0);
+        player.setInGame((flags & PLAYER_IN_GAME) != 0);
+        player.setTurn((flags & PLAYER_TURN) != 0);
+        player.setWinner((flags & PLAYER_WINNER) != 0);
+        player.setEnergy(in.readVarInt());
+
+        int moves = in.readCount();
+        for (int i = 0; i < moves; i++) {
+            player.getMoves().add(readMove(in));
+        }
+        player.setUncoveredShips(readShips(in));
+        return player;
+    }
+
+    private static void writeShips(BinaryWriter out, ArrayList<Ship> ships) {
+        out.writeVarInt(ships.size());
+        for (Ship ship : ships) {
+            out.writeVarInt(ship.getId());
+            out.writeVarInt(ship.getX());
+            out.writeVarInt(ship.getY());
+            out.writeByte(ship.getOrientation().ordinal());
+            out.writeVarInt(ship.getLength());
+            out.writeVarInt(ship.getWidth());
+        }
+    }
+
+    private static ArrayList<Ship> readShips(BinaryReader in) throws IOException {
+        int count = in.readCount();
+        ArrayList<Ship> ships = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = in.readVarInt();
+            int x = in.readVarInt();
+            int y = in.readVarInt();
+            Ship.Orientation orientation = enumValue(Ship.Orientation.values(), in.readByte());
+            Ship ship = new Ship(id, orientation, in.readVarInt(), in.readVarInt());
+            if (x != -1 || y != -1) {
+                ship.setX(x);
+                ship.setY(y);
+            }
+            ships.add(ship);
+        }
+        return ships;
+    }
+
+    private static void writeMove(BinaryWriter out, Move move) throws IOException {
+        int kind = MOVE_SHOT;
+        if (move.getSeaBombItem() != null) {
+            kind = MOVE_SEA_BOMB;
+        } else if (move.getAirStrikeItem() != null) {
+            kind = move.getAirStrikeItem().getOrientation() == AirStrikeItem.Orientation.VERTICAL
+                    ? MOVE_AIR_STRIKE_VERTICAL : MOVE_AIR_STRIKE_HORIZONTAL;
+        } else if (move.getRadarItem() != null) {
+            kind = MOVE_RADAR;
+        }
+
+        out.writeByte(kind);
+        out.writeVarInt(move.getX());
+        out.writeVarInt(move.getY());
+        out.writeVarInt(move.getRowOrColumn());
+        out.writeVarInt(move.getRadarShipsIn3x3Area());
+        writeCells(out, move.getAffectedCells());
+    }
+
+    private static Move readMove(BinaryReader in) throws IOException {
+        int kind = in.readByte();
+        int x = in.readVarInt();
+        int y = in.readVarInt();
+        int rowOrColumn = in.readVarInt();
+
+        Move move = switch (kind) {
+            case MOVE_SHOT -> new Move(x, y);
+            case MOVE_SEA_BOMB -> new Move(new SeaBombItem(), x, y);
+            case MOVE_AIR_STRIKE_HORIZONTAL -> new Move(new AirStrikeItem(AirStrikeItem.Orientation.HORIZONTAL), rowOrColumn);
+            case MOVE_AIR_STRIKE_VERTICAL -> new Move(new AirStrikeItem(AirStrikeItem.Orientation.VERTICAL), rowOrColumn);
+            case MOVE_RADAR -> new Move(new RadarItem(), x, y);
+            default -> throw new IOException("Invalid move kind: " + kind);
+        };
+        move.setRadarShipsIn3x3Area(in.readVarInt());
+
+        ArrayList<Cell> cells = readCells(in);
+        move.setAffectedCells(cells != null ? cells : new ArrayList<>());
+        return move;
+    }
+
+    /**
+     * Writes a cell list as its count, the smallest coordinate and the bit width of the coordinate range,
+     * followed by x, y, hit and ship of every cell packed into consecutive bits.
+     * A count of -1 stands for a null list.
+     */
+    private static void writeCells(BinaryWriter out, ArrayList<Cell> cells) throws IOException {
+        if (cells == null) {
+            out.writeVarInt(-1);
+            return;
+        }
+        out.writeVarInt(cells.size());
+        if (cells.isEmpty()) return;
+
+        int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (Cell cell : cells) {
+            min = Math.min(min, Math.min(cell.getX(), cell.getY()));
+            max = Math.max(max, Math.max(cell.getX(), cell.getY()));
+        }
+        long range = (long) max - min;
+        int bits = 64 - Long.numberOfLeadingZeros(range);
+        if (bits > MAX_CELL_BITS) throw new IOException("Cell coordinates out of range");
+
+        out.writeVarInt(min);
+        out.writeByte(bits);
+        for (Cell cell : cells) {
+            out.writeBits(((cell.getX() - min) << (bits + 2))
+                    | ((cell.getY() - min) << 2)
+                    | (cell.isHit() ? 2 : 0)
+                    | (cell.isShip() ? 1 : 0), 2 * bits + 2);
+        }
+        out.flushBits();
+    }
+
+    private static ArrayList<Cell> readCells(BinaryReader in) throws IOException {
+        int count = in.readVarInt();
+        if (count == -1) return null;
+        if (count < 0) throw new IOException("Invalid count: " + count);
+        if (count == 0) return new ArrayList<>();
+
+        int min = in.readVarInt();
+        int bits = in.readByte();
+        if (bits > MAX_CELL_BITS) throw new IOException("Invalid cell width: " + bits);
+        if ((long) count * (2 * bits + 2) > (long) in.remaining() * 8) throw new IOException("Invalid count: " + count);
+
+        ArrayList<Cell> cells = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int packed = in.readBits(2 * bits + 2);
+            Cell cell = new Cell(min + (packed >>> (bits + 2)), min + ((packed >>> 2) & ((1 << bits) - 1)), (packed & 2) != 0);
+            cell.setShip((packed & 1) != 0);
+            cells.add(cell);
+        }
+        in.alignBits();
+        return cells;
+    }
+
+    private static <T extends Enum<T>> T enumValue(T[] values, int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= values.length) throw new IOException("Invalid ordinal: " + ordinal);
+        return values[ordinal];
+    }
+}
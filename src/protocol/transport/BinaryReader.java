@@ -0,0 +1,139 @@
+package protocol.transport;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Reads the primitive encodings written by {@link BinaryWriter} from a byte array.
+ * Every read is bounds-checked, so a truncated or corrupt payload fails with an IOException.
+ */
+public class BinaryReader {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    private int bitBuffer;
+    private int bitCount;
+
+    /**
+     * Creates a new reader over a slice of a byte array.
+     * @param buffer the array to read from
+     * @param offset the position of the first byte
+     * @param length the number of readable bytes
+     */
+    public BinaryReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int readByte() throws IOException {
+        if (position >= limit) throw new IOException("Unexpected end of payload");
+        return buffer[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * Reads a zig-zag encoded varint.
+     * @return the decoded value
+     * @throws IOException if the payload ends early or the varint is too long
+     */
+    public int readVarInt() throws IOException {
+        long zigZag = readUnsignedVarLong();
+        if (zigZag >>> 32 != 0) throw new IOException("Varint out of range");
+        int value = (int) zigZag;
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a zig-zag encoded varlong.
+     * @return the decoded value
+     * @throws IOException if the payload ends early or the varint is too long
+     */
+    public long readVarLong() throws IOException {
+        long zigZag = readUnsignedVarLong();
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    private long readUnsignedVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Varint too long");
+    }
+
+    /**
+     * Reads a count and checks it against the remaining payload, so corrupt input cannot trigger huge allocations.
+     * @return the count
+     * @throws IOException if the count is negative or larger than the remaining payload
+     */
+    public int readCount() throws IOException {
+        int count = readVarInt();
+        if (count < 0 || count > remaining()) throw new IOException("Invalid count: " + count);
+        return count;
+    }
+
+    public UUID readUuid() throws IOException {
+        return new UUID(readLong(), readLong());
+    }
+
+    private long readLong() throws IOException {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    public String readString() throws IOException {
+        int length = readCount();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Date readDate() throws IOException {
+        long value = readVarLong();
+        return value == 0 ? null : new Date(value - 1);
+    }
+
+    /**
+     * Reads the next bits of the bit stream.
+     * @param bits the number of bits to read, at most 24
+     * @return the bits as a non-negative int
+     * @throws IOException if the payload ends early
+     */
+    public int readBits(int bits) throws IOException {
+        while (bitCount < bits) {
+            bitBuffer = (bitBuffer << 8) | readByte();
+            bitCount += 8;
+        }
+        bitCount -= bits;
+        return (bitBuffer >>> bitCount) & ((1 << bits) - 1);
+    }
+
+    /**
+     * Skips the padding up to the next byte boundary.
+     */
+    public void alignBits() {
+        bitBuffer = 0;
+        bitCount = 0;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+}
@@ -0,0 +1,151 @@
+package protocol.transport;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Growable byte buffer with the primitive encodings of the binary codec.
+ * Integers are written as zig-zag varints, so small values (including -1) take a single byte.
+ */
+public class BinaryWriter {
+
+    private byte[] buffer;
+    private int size;
+
+    private int bitBuffer;
+    private int bitCount;
+
+    /**
+     * Creates a new writer.
+     * @param reserved the number of leading bytes to leave blank, e.g. for a frame header
+     */
+    public BinaryWriter(int reserved) {
+        this.buffer = new byte[Math.max(64, reserved * 2)];
+        this.size = reserved;
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes a signed int as a zig-zag encoded varint.
+     * @param value the value to write
+     */
+    public void writeVarInt(int value) {
+        int zigZag = (value << 1) ^ (value >> 31);
+        writeUnsignedVarLong(zigZag & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a signed long as a zig-zag encoded varint.
+     * @param value the value to write
+     */
+    public void writeVarLong(long value) {
+        writeUnsignedVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeUnsignedVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes a UUID as its 16 raw bytes, most significant half first.
+     * @param uuid the UUID to write, must not be null
+     */
+    public void writeUuid(UUID uuid) {
+        writeLong(uuid.getMostSignificantBits());
+        writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[size++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Writes a string as its UTF-8 length followed by the UTF-8 bytes.
+     * @param value the string to write, must not be null
+     */
+    public void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Writes a nullable date as epoch milliseconds, offset by one so null becomes 0.
+     * @param date the date to write or null
+     */
+    public void writeDate(Date date) {
+        writeVarLong(date == null ? 0 : date.getTime() + 1);
+    }
+
+    /**
+     * Appends the lowest bits of a value to the bit stream.
+     * Must be followed by {@link #flushBits()} before any byte-aligned write.
+     * @param value the value whose lowest bits are written
+     * @param bits the number of bits to write, at most 24
+     */
+    public void writeBits(int value, int bits) {
+        bitBuffer = (bitBuffer << bits) | (value & ((1 << bits) - 1));
+        bitCount += bits;
+        while (bitCount >= 8) {
+            bitCount -= 8;
+            writeByte(bitBuffer >>> bitCount);
+        }
+    }
+
+    /**
+     * Pads the bit stream to the next byte boundary.
+     */
+    public void flushBits() {
+        if (bitCount > 0) {
+            writeByte(bitBuffer << (8 - bitCount));
+        }
+        bitBuffer = 0;
+        bitCount = 0;
+    }
+
+    /**
+     * Overwrites a big-endian int at the given position, e.g. a frame length.
+     * @param position the position of the int
+     * @param value the value to write
+     */
+    public void putInt(int position, int value) {
+        buffer[position] = (byte) (value >>> 24);
+        buffer[position + 1] = (byte) (value >>> 16);
+        buffer[position + 2] = (byte) (value >>> 8);
+        buffer[position + 3] = (byte) value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
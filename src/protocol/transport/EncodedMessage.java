@@ -0,0 +1,79 @@
+package protocol.transport;
+
+import protocol.messages.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.util.Arrays;
+
+/**
+ * A message that is encoded at most once per wire format, no matter how many recipients it is sent to.
+ * The encoded bytes are cached and must not be modified; every connection writes the same arrays.
+ * Encoding is lazy and thread-safe; two threads racing for the same format at worst encode it twice.
+ */
+public class EncodedMessage {
+
+    private static final int STREAM_HEADER_SIZE = 4; // STREAM_MAGIC and STREAM_VERSION
+
+    private final Message message;
+
+    private volatile byte[] serializedFrame;
+    private volatile byte[] binaryFrame;
+    private volatile byte[] streamRecord;
+
+    /**
+     * Creates a new EncodedMessage for the given message.
+     * The message must not be modified afterwards, otherwise recipients may see different versions of it.
+     * @param message the message to send
+     */
+    public EncodedMessage(Message message) {
+        this.message = message;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the complete frame for the framed transport.
+     * @param binary true for the binary codec, false for Java serialization
+     * @return the shared frame bytes
+     * @throws IOException if the message cannot be encoded
+     */
+    public byte[] getFrame(boolean binary) throws IOException {
+        if (binary) {
+            byte[] frame = binaryFrame;
+            if (frame == null) binaryFrame = frame = Frames.encode(message, true);
+            return frame;
+        }
+        byte[] frame = serializedFrame;
+        if (frame == null) serializedFrame = frame = Frames.encode(message, false);
+        return frame;
+    }
+
+    /**
+     * Returns the message as a record that can be written into an existing object stream:
+     * a TC_RESET marker followed by the message serialized by a fresh ObjectOutputStream, without its stream header.
+     * The marker makes the receiving ObjectInputStream drop its handle table, so the handles in the record are valid;
+     * the sending ObjectOutputStream must be reset before it writes its next object.
+     * @return the shared record bytes
+     * @throws IOException if the message cannot be serialized
+     */
+    public byte[] getStreamRecord() throws IOException {
+        byte[] record = streamRecord;
+        if (record == null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(message);
+            }
+            byte[] serialized = bytes.toByteArray();
+
+            record = Arrays.copyOfRange(serialized, STREAM_HEADER_SIZE - 1, serialized.length);
+            record[0] = ObjectStreamConstants.TC_RESET;
+            streamRecord = record;
+        }
+        return record;
+    }
+}
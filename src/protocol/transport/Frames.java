@@ -0,0 +1,132 @@
+package protocol.transport;
+
+import protocol.messages.Message;
+
+import java.io.*;
+
+/**
+ * Length-prefixed framing used by the non-blocking server transport.
+ * Every frame consists of a 4-byte big-endian payload length followed by the payload itself.
+ * The first payload byte names the wire format of the rest: a single, self-contained serialized Message,
+ * or a Message in the compact format of {@link BinaryCodec}.
+ */
+public class Frames {
+
+    public static final int HEADER_SIZE = 4;
+    public static final int MAX_FRAME_SIZE = 1 << 20;
+
+    public static final byte FORMAT_SERIALIZED = 0;
+    public static final byte FORMAT_BINARY = 1;
+
+    /**
+     * Encodes a message into a complete serialized frame including the length prefix.
+     * @param message the message to encode
+     * @return the frame bytes
+     * @throws IOException if the message cannot be serialized
+     */
+    public static byte[] encode(Message message) throws IOException {
+        return encode(message, false);
+    }
+
+    /**
+     * Encodes a message into a complete frame including the length prefix.
+     * @param message the message to encode
+     * @param binary true to use the binary codec, false to use Java serialization
+     * @return the frame bytes
+     * @throws IOException if the message cannot be encoded
+     */
+    public static byte[] encode(Message message, boolean binary) throws IOException {
+        if (binary) {
+            BinaryWriter out = new BinaryWriter(HEADER_SIZE);
+            out.writeByte(FORMAT_BINARY);
+            BinaryCodec.encode(message, out);
+            out.putInt(0, out.size() - HEADER_SIZE);
+            return out.toByteArray();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(new byte[HEADER_SIZE]); // placeholder for the length prefix
+        bytes.write(FORMAT_SERIALIZED);
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+
+        byte[] frame = bytes.toByteArray();
+        writeLength(frame, frame.length - HEADER_SIZE);
+        return frame;
+    }
+
+    /**
+     * Decodes the payload of a single frame.
+     * @param payload the buffer containing the payload
+     * @param offset the offset of the payload in the buffer
+     * @param length the length of the payload
+     * @return the decoded message
+     * @throws IOException if the payload is not a valid message
+     */
+    public static Message decode(byte[] payload, int offset, int length) throws IOException {
+        byte format = payload[offset];
+
+        if (format == FORMAT_BINARY) {
+            BinaryReader in = new BinaryReader(payload, offset + 1, length - 1);
+            Message message = BinaryCodec.decode(in);
+            if (in.hasRemaining()) throw new IOException("Trailing bytes in frame payload");
+            return message;
+        }
+        if (format != FORMAT_SERIALIZED) throw new IOException("Unknown frame format: " + format);
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload, offset + 1, length - 1))) {
+            return (Message) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid frame payload", e);
+        }
+    }
+
+    /**
+     * Reads the next frame from a blocking stream.
+     * @param in the stream to read from
+     * @return the decoded message
+     * @throws IOException if the stream is closed or the frame is invalid
+     */
+    public static Message read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        checkLength(length);
+
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return decode(payload, 0, length);
+    }
+
+    /**
+     * Checks if the given frame length is acceptable.
+     * @param length the length read from the frame header
+     * @throws IOException if the length is out of range
+     */
+    public static void checkLength(int length) throws IOException {
+        if (length <= 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+    }
+
+    /**
+     * Peeks at the first bytes sent by the server to find out which transport it speaks.
+     * A blocking server starts with the Java serialization stream header, a framed server with a length prefix.
+     * @param in the stream to peek at, must support mark/reset
+     * @return true if the server uses framed messages
+     * @throws IOException if the stream is closed
+     */
+    public static boolean isFramed(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int magic = (in.read() << 8) | in.read();
+        in.reset();
+        return magic != (ObjectStreamConstants.STREAM_MAGIC & 0xFFFF);
+    }
+
+    private static void writeLength(byte[] frame, int length) {
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+    }
+}
@@ -7,19 +7,33 @@ import protocol.messages.game.building.GameBuildingStartMessage;
 import protocol.messages.game.ingame.GameInGameStartMessage;
 import protocol.messages.game.GameOverMessage;
 import protocol.messages.game.JoinGameMessage;
+import protocol.messages.game.GameStateSyncMessage;
 import protocol.messages.game.building.PlayerReadyStateChangeMessage;
 import protocol.messages.game.ingame.MoveMadeMessage;
 import protocol.messages.game.ingame.PlayerTurnChangeMessage;
+import protocol.transport.EncodedMessage;
+import utils.Fleet;
 import utils.MoveManager;
+import utils.Log;
+import utils.TargetBoard;
 
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-public class BattleShipGame implements Game, Runnable {
+/**
+ * A game between two players.
+ * The game is an actor: player inputs and timer fires are posted to its mailbox and processed one at a time
+ * on the shared game executor, so its state is only ever changed by one thread at a time.
+ * Other threads may read the players and the current game state.
+ */
+public class BattleShipGame implements Game {
 
     private Server server;
+    private final Mailbox mailbox;
 
-    private ServerPlayer playerA, playerB;
-    private GameState gameState = null;
+    private volatile ServerPlayer playerA, playerB;
+    private volatile GameState gameState = null;
     private final int size;
 
     private final ArrayList<Ship> availableShips = new ArrayList<>();
@@ -30,7 +44,13 @@ public class BattleShipGame implements Game, Runnable {
     private ArrayList<Ship> shipsPlayerA = new ArrayList<>();
     private ArrayList<Ship> shipsPlayerB = new ArrayList<>();
 
-    private Timer turnDelayTimer;
+    // The shots of each player at the ships of the opponent, created when the in-game phase starts
+    private TargetBoard targetBoardA, targetBoardB;
+
+    // Delayed transitions on the server scheduler, null if none is pending
+    private volatile ScheduledFuture<?> deadline; // end of the build phase or of the current turn
+    private volatile ScheduledFuture<?> turnDelay; // turn change one second after a miss
+    private volatile ScheduledFuture<?> gameOverDelay; // game over shortly after the deciding move
 
     /**
      * Constructor for the BattleShipGame class.
@@ -46,7 +66,8 @@ public class BattleShipGame implements Game, Runnable {
         // Initialize available ships
         initAvailableShips();
 
-        this.gameState = new GameState(gameOptions, availableShips);
+        this.gameState = new GameState(gameOptions, availableShips, server.getJoinCodes().allocate());
+        this.mailbox = new Mailbox(server.getGameExecutor(), "Game " + gameState.getId());
     }
 
     /**
@@ -61,44 +82,85 @@ public class BattleShipGame implements Game, Runnable {
         // Initialize available ships
         initAvailableShips();
 
-        this.gameState = new GameState(gameOptions, availableShips);
+        this.gameState = new GameState(gameOptions, availableShips, server.getJoinCodes().allocate());
+        this.mailbox = new Mailbox(server.getGameExecutor(), "Game " + gameState.getId());
     }
 
     /**
-     * Main method to run the game loop.
+     * Schedules the deadline of the current phase: the end of the build phase or the end of the current turn.
+     * A previously scheduled deadline is cancelled, so this is called whenever one of these dates changes.
      */
-    @Override
-    public void run() {
-        while (this.gameState.getStatus().equals(GameState.GameStatus.LOBBY_WAITING)) {
-            sleep(1000);
-            logToConsole("Waiting for players to join");
+    private void scheduleDeadline() {
+        cancelDeadline();
+
+        Date at;
+        if (gameState.getStatus().equals(GameState.GameStatus.BUILD_GAME_BOARD)) {
+            at = gameState.getBuildGameBoardFinished();
+        } else if (gameState.getStatus().equals(GameState.GameStatus.IN_GAME)) {
+            at = gameState.getPlayersTurnEnd();
+        } else {
+            return;
+        }
+
+        long delay = Math.max(0, at.getTime() - System.currentTimeMillis());
+        deadline = server.getScheduler().schedule(() -> mailbox.post(this::onDeadline), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the scheduled deadline, if there is one.
+     */
+    private void cancelDeadline() {
+        ScheduledFuture<?> scheduled = deadline;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            deadline = null;
         }
-        // Build-Phase
-        while (this.gameState.getStatus().equals(GameState.GameStatus.BUILD_GAME_BOARD)) {
-            sleep(1000);
+    }
 
-            if (this.gameState.getBuildGameBoardFinished().before(new Date())) {
+    /**
+     * Cancels all delayed transitions of the game, e.g. when it is unregistered.
+     */
+    void cancelScheduledTasks() {
+        cancelDeadline();
 
-                logToConsole("Build phase finished; Starting In-Game phase");
+        ScheduledFuture<?> scheduled = turnDelay;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            turnDelay = null;
+        }
 
-                sendInGameStartEvent();
-            }
+        scheduled = gameOverDelay;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            gameOverDelay = null;
         }
+    }
+
+
 
-        // In-Game Phase
-        while (gameState.getStatus().equals(GameState.GameStatus.IN_GAME)) {
-            sleep(1000);
+    /**
+     * Called when the deadline of the current phase is reached.
+     * Ends the build phase or the current turn, unless the deadline was moved in the meantime.
+     */
+    private void onDeadline() {
+        if (this.gameState.getStatus().equals(GameState.GameStatus.BUILD_GAME_BOARD)) {
+            if (this.gameState.getBuildGameBoardFinished().after(new Date())) {
+                scheduleDeadline();
+                return;
+            }
 
-            if (this.gameState.getPlayersTurnEnd().before(new Date())) {
-                logToConsole("Players turn ended; sending turn change event");
+            logToConsole("Build phase finished; Starting In-Game phase");
 
-                sendTurnChangeEvent();
+            sendInGameStartEvent();
+        } else if (this.gameState.getStatus().equals(GameState.GameStatus.IN_GAME)) {
+            if (this.gameState.getPlayersTurnEnd().after(new Date())) {
+                scheduleDeadline();
+                return;
             }
-        }
 
-        if (gameState.getStatus().equals(GameState.GameStatus.GAME_OVER)) {
-            logToConsole("Game Over");
-            unregisterGame(); // Unregister the game from the server
+            logToConsole("Players turn ended; sending turn change event");
+
+            sendTurnChangeEvent();
         }
     }
 
@@ -107,13 +169,22 @@ public class BattleShipGame implements Game, Runnable {
      * @param player The player to add.
      */
     @Override
-    public synchronized void addPlayer(ServerPlayer player) {
-        if (!this.gameState.getStatus().equals(GameState.GameStatus.LOBBY_WAITING)) return;
+    public void addPlayer(ServerPlayer player) {
+        mailbox.post(() -> handleAddPlayer(player));
+    }
+
+    private void handleAddPlayer(ServerPlayer player) {
+        // The game may have started or ended since the player asked to join, another player may have been faster
+        if (!this.gameState.getStatus().equals(GameState.GameStatus.LOBBY_WAITING)) {
+            player.sendMessage(new ErrorMessage(ErrorType.GAME_ALREADY_STARTED));
+            return;
+        }
 
         player.setInGame(true);
 
         if (playerA == null) {
             playerA = player;
+            server.onPlayerJoinedGame(playerA, this);
             GameState newState = new GameState(this.getGameState());
             newState.setPlayerA(new ClientPlayer(playerA.getId(), playerA.getUsername())); //Create Wrapper for ServerPlayer
             newState.getPlayerA().setEnergy(gameState.getGameOptions().getEnergyGameStart());
@@ -125,6 +196,7 @@ public class BattleShipGame implements Game, Runnable {
             this.gameState = newState;
         } else if (playerB == null) {
             playerB = player;
+            server.onPlayerJoinedGame(playerB, this);
             GameState newState = new GameState(this.getGameState());
             newState.setPlayerB(new ClientPlayer(playerB.getId(), playerB.getUsername())); //Create Wrapper for ServerPlayer
             newState.getPlayerB().setEnergy(gameState.getGameOptions().getEnergyGameStart());
@@ -136,7 +208,7 @@ public class BattleShipGame implements Game, Runnable {
             this.gameState = newState;
         }
 
-        server.updateGameList();
+        server.onGameChanged(this);
 
         //If both players are present, start the game
         if (playerA != null && playerB != null) sendGameStartingEvent();
@@ -147,7 +219,11 @@ public class BattleShipGame implements Game, Runnable {
      * @param player The player to remove.
      */
     @Override
-    public synchronized void removePlayer(ServerPlayer player) {
+    public void removePlayer(ServerPlayer player) {
+        mailbox.post(() -> handleRemovePlayer(player));
+    }
+
+    private void handleRemovePlayer(ServerPlayer player) {
         this.gameState.getPlayer(player.getId()).setInGame(false);
         player.setInGame(false);
 
@@ -166,7 +242,7 @@ public class BattleShipGame implements Game, Runnable {
      * Sends a game starting event to both players.
      */
     @Override
-    public synchronized void sendGameStartingEvent() {
+    public void sendGameStartingEvent() {
         // Only start the game if the game is in the lobby phase
         if (!gameState.getStatus().equals(GameState.GameStatus.LOBBY_WAITING)) return;
 
@@ -181,9 +257,10 @@ public class BattleShipGame implements Game, Runnable {
 
         broadcastMessage(new GameBuildingStartMessage(newState));
 
-        server.updateGameList();
+        server.onGameChanged(this);
 
         this.gameState = newState;
+        scheduleDeadline();
     }
 
     /**
@@ -193,6 +270,10 @@ public class BattleShipGame implements Game, Runnable {
      */
     @Override
     public void onPlayerPlaceShips(ServerPlayer player, ArrayList<Ship> ships) {
+        mailbox.post(() -> handlePlaceShips(player, ships));
+    }
+
+    private void handlePlaceShips(ServerPlayer player, ArrayList<Ship> ships) {
 
         boolean validatePlacement = ShipPlacementHelper.shipsAreShipsTheSame(this.gameState.getAvailableShips(), ships, this.size);
 
@@ -215,6 +296,10 @@ public class BattleShipGame implements Game, Runnable {
      */
     @Override
     public void onPlayerReadyStateChange(ServerPlayer player, boolean ready) {
+        mailbox.post(() -> handleReadyStateChange(player, ready));
+    }
+
+    private void handleReadyStateChange(ServerPlayer player, boolean ready) {
         GameState gameState = new GameState(this.getGameState());
 
         if (playerA != null && playerA.getId().equals(player.getId())) {
@@ -233,10 +318,7 @@ public class BattleShipGame implements Game, Runnable {
             }
         }
 
-        if (playerA != null)
-            playerA.sendMessage(new PlayerReadyStateChangeMessage(gameState));
-        if (playerB != null)
-            playerB.sendMessage(new PlayerReadyStateChangeMessage(gameState));
+        broadcastMessage(new PlayerReadyStateChangeMessage(gameState));
 
         // Optional: Ausgabe, wenn beide Spieler ready sind
         if (gameState.getPlayerA() != null && gameState.getPlayerB() != null &&
@@ -244,6 +326,9 @@ public class BattleShipGame implements Game, Runnable {
 
             //Skip build phase if both players are ready
             gameState.setBuildGameBoardFinished(new Date(System.currentTimeMillis() + 500));
+            this.gameState = gameState;
+            scheduleDeadline();
+            return;
         }
 
         this.gameState = gameState;
@@ -253,13 +338,17 @@ public class BattleShipGame implements Game, Runnable {
      * Handles the event when a player hovers over a tile.
      */
     @Override
-    public synchronized void sendInGameStartEvent() {
+    public void sendInGameStartEvent() {
         //Only start the game if the game is in the build phase
         if(!gameState.getStatus().equals(GameState.GameStatus.BUILD_GAME_BOARD)) return;
 
         // Check if both players are ready
         checkForUnplacedShips();
 
+        // The ships do not move anymore
+        this.targetBoardA = new TargetBoard(new Fleet(this.shipsPlayerB, this.size));
+        this.targetBoardB = new TargetBoard(new Fleet(this.shipsPlayerA, this.size));
+
         GameState newState = new GameState(this.getGameState());
 
         Date start = new Date();
@@ -278,7 +367,8 @@ public class BattleShipGame implements Game, Runnable {
             playerB.sendMessage(new GameInGameStartMessage(newState, this.shipsPlayerB));
 
         this.gameState = newState;
-        server.updateGameList();
+        scheduleDeadline();
+        server.onGameChanged(this);
     }
 
     /**
@@ -319,7 +409,7 @@ public class BattleShipGame implements Game, Runnable {
 
         logToConsole("New player turn: " + newState.getCurrentTurnPlayer().getName());
 
-        MoveManager moveManager = new MoveManager(newState);
+        MoveManager moveManager = new MoveManager(newState, targetBoardA.getHistory(), targetBoardB.getHistory());
 
         if (!moveManager.isAMoveStillPossible()) {
             logToConsole("No more moves possible");
@@ -327,42 +417,49 @@ public class BattleShipGame implements Game, Runnable {
             return;
         }
 
+        UUID forcedMover = null;
+        Move forcedMove = null;
+
         if (gameState.getPlayerA() != null && gameState.getPlayerA().isTurn() &&
                 !this.playerTurnMadeMove) {
 
             logToConsole("Player A did not submit move; placing random move");
 
-            Move move = moveManager.makeRandomMove(playerA.getId());
-            newState.addMove(playerA.getId(), move);
+            forcedMover = playerA.getId();
+            forcedMove = moveManager.makeRandomMove(playerA.getId());
+            newState.addMove(playerA.getId(), forcedMove);
+            targetBoardA.apply(forcedMove);
             //this.onPlayerAttemptMove(playerA, move);
         } else if (gameState.getPlayerB() != null && gameState.getPlayerB().isTurn() &&
                 !this.playerTurnMadeMove) {
             logToConsole("Player B did not submit move; placing random move");
 
-            Move move = moveManager.makeRandomMove(playerB.getId());
-            newState.addMove(playerB.getId(), move);
+            forcedMover = playerB.getId();
+            forcedMove = moveManager.makeRandomMove(playerB.getId());
+            newState.addMove(playerB.getId(), forcedMove);
+            targetBoardB.apply(forcedMove);
             //this.onPlayerAttemptMove(playerB, move);
         }
 
-        ArrayList<Ship> uncoveredShipsA = newState.getSunkenShips(newState.getPlayerA(), this.shipsPlayerB);
-        ArrayList<Ship> uncoveredShipsB = newState.getSunkenShips(newState.getPlayerB(), this.shipsPlayerA);
+        newState.getPlayerA().setUncoveredShips(targetBoardA.getSunkenShips());
+        newState.getPlayerB().setUncoveredShips(targetBoardB.getSunkenShips());
 
-        newState.getPlayerA().setUncoveredShips(uncoveredShipsA);
-        newState.getPlayerB().setUncoveredShips(uncoveredShipsB);
+        newState.setSequence(gameState.getSequence() + 1);
+        GameStateDelta delta = GameStateDelta.between(gameState, newState, forcedMover, forcedMove);
 
-        //newState.uncoverHitShips(this.shipsPlayerA, this.shipsPlayerB);
-        newState.updateHitList(this.shipsPlayerA, this.shipsPlayerB);
-        newState.loadRadars(this.shipsPlayerA, this.shipsPlayerB);
+        // The state is replaced before the delta is sent, so a resync never returns a state behind it
+        this.gameState = newState;
 
+        EncodedMessage turnChange = new EncodedMessage(new PlayerTurnChangeMessage(delta));
         if (gameState.getPlayerA() != null)
-            playerA.sendMessage(new PlayerTurnChangeMessage(newState));
+            playerA.sendMessage(turnChange);
         if (gameState.getPlayerB() != null)
-            playerB.sendMessage(new PlayerTurnChangeMessage(newState));
+            playerB.sendMessage(turnChange);
 
         this.playerTurnMadeMove = false;
 
-        this.gameState = newState;
-        server.updateGameList();
+        scheduleDeadline();
+        server.onGameChanged(this);
 
         checkForWinner();
     }
@@ -374,11 +471,7 @@ public class BattleShipGame implements Game, Runnable {
     @Override
     public void sendGameOverEvent(GameOverReason reason) {
         gameState.setStatus(GameState.GameStatus.GAME_OVER);
-
-        if(this.turnDelayTimer != null) {
-            this.turnDelayTimer.cancel();
-            this.turnDelayTimer = null;
-        }
+        cancelScheduledTasks();
 
         if(this.playerA != null)this.playerA.setInGame(false);
         if(this.playerB != null) this.playerB.setInGame(false);
@@ -406,8 +499,7 @@ public class BattleShipGame implements Game, Runnable {
                 if (playerA != null && playerA.isInGame()) {
                     newState.setWinner(playerA.getId());
                     newState.setWinner(playerB.getId());
-                    playerA.sendMessage(new GameOverMessage(newState));
-                    playerB.sendMessage(new GameOverMessage(newState));
+                    broadcastMessage(new GameOverMessage(newState));
                 }
                 this.gameState = newState;
             }
@@ -415,8 +507,7 @@ public class BattleShipGame implements Game, Runnable {
                 GameState newState = new GameState(this.getGameState());
 
                 if (playerA != null && playerA.isInGame()) {
-                    playerA.sendMessage(new GameOverMessage(newState));
-                    playerB.sendMessage(new GameOverMessage(newState));
+                    broadcastMessage(new GameOverMessage(newState));
                 }
 
                 this.gameState = newState;
@@ -425,8 +516,8 @@ public class BattleShipGame implements Game, Runnable {
 
                 GameState newState = new GameState(this.getGameState());
 
-                boolean hasPlayerAWon = this.gameState.hasPlayerSunkAllShips(newState.getPlayerA(), this.shipsPlayerB);
-                boolean hasPlayerBWon = this.gameState.hasPlayerSunkAllShips(newState.getPlayerB(), this.shipsPlayerA);
+                boolean hasPlayerAWon = hasSunkAllShips(targetBoardA);
+                boolean hasPlayerBWon = hasSunkAllShips(targetBoardB);
 
                 if(hasPlayerAWon) {
                     logToConsole("Player A (" + playerA.getUsername() + ") won the game");
@@ -436,17 +527,17 @@ public class BattleShipGame implements Game, Runnable {
                     newState.setWinner(playerB.getId());
                 }
 
-                playerA.sendMessage(new GameOverMessage(newState));
-                playerB.sendMessage(new GameOverMessage(newState));
+                broadcastMessage(new GameOverMessage(newState));
 
                 this.gameState = newState;
             }
             case PLAYER_LEFT_LOBBY -> {
-                //No action needed, the game will be unregistered automatically because the game status is set to GAME_OVER
+                //No action needed, the game is unregistered below
             }
         }
 
-        server.updateGameList();
+        logToConsole("Game Over");
+        unregisterGame();
     }
 
     /**
@@ -456,12 +547,26 @@ public class BattleShipGame implements Game, Runnable {
      */
     @Override
     public void onPlayerAttemptMove(ServerPlayer player, Move move) {
+        mailbox.post(() -> handleAttemptMove(player, move));
+    }
+
+    /**
+     * Sends the full game state to a player.
+     * The state is read in the mailbox, so it is ordered with the deltas the game sends.
+     * @param player The player who requested the game state.
+     */
+    @Override
+    public void requestSync(ServerPlayer player) {
+        mailbox.post(() -> player.sendMessage(new GameStateSyncMessage(gameState)));
+    }
+
+    private void handleAttemptMove(ServerPlayer player, Move move) {
         if (!this.gameState.getStatus().equals(GameState.GameStatus.IN_GAME)) return;
 
         if(playerTurnMadeMove && !allowAnotherMove) return;
         this.allowAnotherMove = false;
 
-        MoveManager moveManager = new MoveManager(gameState);
+        MoveManager moveManager = new MoveManager(gameState, targetBoardA.getHistory(), targetBoardB.getHistory());
         if (!moveManager.isPlayerMoveMoveValid(player.getId(), move)) {
             player.sendMessage(new ErrorMessage(ErrorType.INVALID_MOVE));
             return;
@@ -492,10 +597,8 @@ public class BattleShipGame implements Game, Runnable {
 
         this.playerTurnMadeMove = true;
 
-        boolean moveIsHit = MoveManager.moveHasHit(
-                player.getId().equals(playerA.getId()) ? this.shipsPlayerB : this.shipsPlayerA,
-                move
-        );
+        // Marks the hit cells, counts the hits per ship and loads the radar, once per move
+        boolean moveIsHit = (player.getId().equals(playerA.getId()) ? targetBoardA : targetBoardB).apply(move);
 
         if (moveIsHit) {
             newState.getCurrentTurnPlayer().addEnergy(newState.getGameOptions().getEnergyShipHit());
@@ -510,33 +613,26 @@ public class BattleShipGame implements Game, Runnable {
 
             newState.setPlayersTurnEnd(new Date(newState.getPlayersTurnEnd().getTime() + 1000));
 
-            turnDelayTimer = new Timer();
-            turnDelayTimer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    sendTurnChangeEvent(); // Send turn change event after the timer expires
-                }
-            }, 1000);
+            // Send turn change event after the delay expires, unless the game ended in the meantime
+            turnDelay = server.getScheduler().schedule(() -> mailbox.post(() -> {
+                if (gameState.getStatus().equals(GameState.GameStatus.IN_GAME)) sendTurnChangeEvent();
+            }), 1000, TimeUnit.MILLISECONDS);
         }
 
-        ArrayList<Ship> uncoveredShipsA = newState.getSunkenShips(newState.getPlayerA(), this.shipsPlayerB);
-        ArrayList<Ship> uncoveredShipsB = newState.getSunkenShips(newState.getPlayerB(), this.shipsPlayerA);
-
-        newState.getPlayerA().setUncoveredShips(uncoveredShipsA);
-        newState.getPlayerB().setUncoveredShips(uncoveredShipsB);
-
-        newState.updateHitList(this.shipsPlayerA, this.shipsPlayerB);
-        newState.loadRadars(this.shipsPlayerA, this.shipsPlayerB);
+        newState.getPlayerA().setUncoveredShips(targetBoardA.getSunkenShips());
+        newState.getPlayerB().setUncoveredShips(targetBoardB.getSunkenShips());
 
         newState.setPlayersTurnEnd(new Date(newState.getPlayersTurnEnd().getTime() + 1000));
 
-        if (playerA != null)
-            playerA.sendMessage(new MoveMadeMessage(newState));
-        if (playerB != null)
-            playerB.sendMessage(new MoveMadeMessage(newState));
+        newState.setSequence(gameState.getSequence() + 1);
+        GameStateDelta delta = GameStateDelta.between(gameState, newState, player.getId(), move);
 
         this.gameState = newState;
-        server.updateGameList();
+
+        broadcastMessage(new MoveMadeMessage(delta));
+
+        scheduleDeadline();
+        server.onGameChanged(this);
 
         checkForWinner();
     }
@@ -546,45 +642,42 @@ public class BattleShipGame implements Game, Runnable {
      */
     private void checkForWinner() {
         // Check if the game is over
-        boolean hasPlayerAWon = this.gameState.hasPlayerSunkAllShips(this.gameState.getPlayerA(), this.shipsPlayerB);
-        boolean hasPlayerBWon = this.gameState.hasPlayerSunkAllShips(this.gameState.getPlayerB(), this.shipsPlayerA);
+        boolean hasPlayerAWon = hasSunkAllShips(targetBoardA);
+        boolean hasPlayerBWon = hasSunkAllShips(targetBoardB);
 
-        Timer gameOverTimer;
-        if(hasPlayerAWon || hasPlayerBWon) {
-            gameOverTimer = new Timer();
+        // The game ends once; a move arriving before the scheduled game over must not schedule another one
+        if (gameOverDelay != null) return;
 
-            gameOverTimer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    sendGameOverEvent(GameOverReason.PLAYER_WON);
-                }
-            }, 500);
+        if(hasPlayerAWon || hasPlayerBWon) {
+            scheduleGameOver(GameOverReason.PLAYER_WON);
+            return;
         }
 
-        boolean noMovePossibleA = this.gameState.noMoreMovesPossible(this.gameState.getPlayerA());
-        boolean noMovePossibleB = this.gameState.noMoreMovesPossible(this.gameState.getPlayerB());
+        boolean noMovePossibleA = targetBoardA.getAffectedCellCount() >= this.size * this.size;
+        boolean noMovePossibleB = targetBoardB.getAffectedCellCount() >= this.size * this.size;
 
         if(noMovePossibleA || noMovePossibleB) {
-            gameOverTimer = new Timer();
-
-            gameOverTimer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    sendGameOverEvent(GameOverReason.NO_MORE_MOVES);
-                }
-            }, 500);
+            scheduleGameOver(GameOverReason.NO_MORE_MOVES);
         }
     }
 
     /**
-     * Sleeps the current thread for a specified amount of time.
-     * @param time The time to sleep in milliseconds.
+     * Checks if a player has sunk all ships of the opponent.
+     * @param targetBoard The shots of the player.
+     * @return true, if all ships are sunk
      */
-    private synchronized void sleep(int time) {
-        try {
-            Thread.sleep(time);
-        } catch (InterruptedException e) {
-        }
+    private boolean hasSunkAllShips(TargetBoard targetBoard) {
+        return targetBoard.getSunkCount() == this.gameState.getAvailableShips().size();
+    }
+
+    /**
+     * Sends the game over event after a short delay, so the players see the deciding move first.
+     * @param reason The reason for the game over.
+     */
+    private void scheduleGameOver(GameOverReason reason) {
+        gameOverDelay = server.getScheduler().schedule(() -> mailbox.post(() -> {
+            if (!gameState.getStatus().equals(GameState.GameStatus.GAME_OVER)) sendGameOverEvent(reason);
+        }), 500, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -604,23 +697,24 @@ public class BattleShipGame implements Game, Runnable {
 
     /**
      * Broadcasts a message to both players in the game.
+     * The message is encoded only once and the same bytes are written to both connections.
      * @param message The message to be broadcast.
      */
     private void broadcastMessage(Message message) {
-        if (playerA != null) playerA.sendMessage(message);
-        if (playerB != null) playerB.sendMessage(message);
+        EncodedMessage encoded = new EncodedMessage(message);
+        if (playerA != null) playerA.sendMessage(encoded);
+        if (playerB != null) playerB.sendMessage(encoded);
     }
 
     /**
      * Unregisters the game from the server.
      */
-    private synchronized void unregisterGame() {
+    private void unregisterGame() {
         server.unregisterGame(this.gameState.getId());
-        server.updateGameList();
     }
 
     private void logToConsole(String message) {
-        System.out.println("[Game " + this.gameState.getId() + "] " + message);
+        Log.info("Game " + this.gameState.getId(), message);
     }
 
     /**
@@ -42,6 +42,12 @@ public interface Game {
      */
     void onPlayerAttemptMove(ServerPlayer player, Move move);
 
+    /**
+     * Handles the event when a player requests the full game state, e.g. after missing a delta.
+     * @param player The player who requested the game state.
+     */
+    void requestSync(ServerPlayer player);
+
     /**
      * Handles the event when a player hovers over a tile.
      */
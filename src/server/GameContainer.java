@@ -2,16 +2,13 @@ package server;
 
 public class GameContainer {
     private final BattleShipGame game;
-    private final Thread thread;
 
     /**
-     * Creates a new GameContainer with the specified game and thread.
+     * Creates a new GameContainer with the specified game.
      * @param game the game to be contained
-     * @param thread the thread to be associated with the game
      */
-    public GameContainer(BattleShipGame game, Thread thread) {
+    public GameContainer(BattleShipGame game) {
         this.game = game;
-        this.thread = thread;
     }
 
     /**
@@ -21,12 +18,4 @@ public class GameContainer {
     public BattleShipGame getGame() {
         return game;
     }
-
-    /**
-     * Returns the thread associated with this container.
-     * @return the thread
-     */
-    public Thread getThread() {
-        return thread;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package server;
+
+import protocol.game.Cell;
+import protocol.messages.game.ingame.PlayerHoverMessage;
+import utils.Log;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays hover messages to the opponent at a limited rate.
+ * Only the latest hover of each player is kept; hovers that arrive before the next tick replace it
+ * and are counted as dropped. A hover whose cell and footprint equal the last relayed one is skipped.
+ */
+public class HoverRelay {
+
+    /**
+     * A hover waiting for the next tick, or the last hover relayed to a recipient.
+     */
+    private static class Hover {
+        private final ServerPlayer recipient;
+        private final PlayerHoverMessage message;
+
+        Hover(ServerPlayer recipient, PlayerHoverMessage message) {
+            this.recipient = recipient;
+            this.message = message;
+        }
+    }
+
+    private final Map<ServerPlayer, Hover> pending = new ConcurrentHashMap<>();
+    private final Map<ServerPlayer, Hover> lastRelayed = new ConcurrentHashMap<>();
+
+    private volatile boolean immediate = true;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong relayed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+
+    /**
+     * Starts relaying pending hovers at the given rate.
+     * @param scheduler the scheduler that runs the ticks
+     * @param rate the maximum number of hovers relayed per player and second, 0 to relay every hover immediately;
+     *             at most {@link Parameters#MAX_HOVER_RATE}
+     */
+    public void start(ScheduledExecutorService scheduler, int rate) {
+        if (rate <= 0) return;
+        immediate = false;
+        long period = TimeUnit.SECONDS.toMicros(1) / rate;
+        scheduler.scheduleAtFixedRate(this::flush, period, period, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Submits a hover of a player for relaying to its opponent.
+     * @param sender the player who hovers
+     * @param recipient the opponent
+     * @param message the hover
+     */
+    public void submit(ServerPlayer sender, ServerPlayer recipient, PlayerHoverMessage message) {
+        received.incrementAndGet();
+        Hover hover = new Hover(recipient, message);
+
+        if (immediate) {
+            relay(sender, hover);
+            return;
+        }
+        if (pending.put(sender, hover) != null) dropped.incrementAndGet();
+    }
+
+    /**
+     * Forgets the hovers of a player, e.g. when the player leaves or the game ends.
+     * @param player the player
+     */
+    public void forget(ServerPlayer player) {
+        pending.remove(player);
+        lastRelayed.remove(player);
+    }
+
+    /**
+     * Relays the latest pending hover of every player.
+     */
+    private void flush() {
+        try {
+            for (ServerPlayer sender : pending.keySet()) {
+                Hover hover = pending.remove(sender);
+                if (hover != null) relay(sender, hover);
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            Log.error("Server", "Hover relay failed", e);
+        }
+    }
+
+    private void relay(ServerPlayer sender, Hover hover) {
+        Hover last = lastRelayed.put(sender, hover);
+        if (last != null && last.recipient == hover.recipient && sameFootprint(last.message, hover.message)) {
+            unchanged.incrementAndGet();
+            return;
+        }
+
+        relayed.incrementAndGet();
+        hover.recipient.sendMessage(new PlayerHoverMessage(hover.message));
+    }
+
+    /**
+     * Checks whether two hovers point at the same cell with the same affected cells.
+     * @param a the first hover
+     * @param b the second hover
+     * @return true if the opponent would see no difference
+     */
+    private static boolean sameFootprint(PlayerHoverMessage a, PlayerHoverMessage b) {
+        if (a.getX() != b.getX() || a.getY() != b.getY()) return false;
+
+        ArrayList<Cell> cellsA = a.getAffectedFields();
+        ArrayList<Cell> cellsB = b.getAffectedFields();
+        if (cellsA == null || cellsB == null) return cellsA == cellsB;
+        if (cellsA.size() != cellsB.size()) return false;
+
+        for (int i = 0; i < cellsA.size(); i++) {
+            if (cellsA.get(i).getX() != cellsB.get(i).getX() || cellsA.get(i).getY() != cellsB.get(i).getY()) return false;
+        }
+        return true;
+    }
+
+    public long getReceived() {
+        return received.get();
+    }
+
+    public long getRelayed() {
+        return relayed.get();
+    }
+
+    /**
+     * Returns the number of hovers that were replaced by a newer hover of the same player before the next tick.
+     * @return the number of dropped hovers
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of hovers that were not relayed because the opponent already saw the same footprint.
+     * @return the number of unchanged hovers
+     */
+    public long getUnchanged() {
+        return unchanged.get();
+    }
+
+    @Override
+    public String toString() {
+        return "HoverRelay{" +
+                "received=" + received +
+                ", relayed=" + relayed +
+                ", dropped=" + dropped +
+                ", unchanged=" + unchanged +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package server;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocates the six-digit join codes of games and finds games by their code.
+ * Codes are taken from a counter that is permuted over the whole code space, so consecutive games get codes
+ * that are far apart and every code is visited once before any is tried again. A code is reserved until
+ * the game that got it is released, so two games never share a code.
+ */
+public class JoinCodeRegistry {
+
+    private static final int MIN_CODE = 100000;
+    private static final int CODE_COUNT = 900000;
+
+    // Coprime to CODE_COUNT, so counter * STRIDE walks through every code once per cycle
+    private static final int STRIDE = 388177;
+
+    private final AtomicInteger counter = new AtomicInteger(ThreadLocalRandom.current().nextInt(CODE_COUNT));
+    private final Set<Integer> reserved = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, BattleShipGame> games = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves a code that no other game uses.
+     * @return the reserved code
+     * @throws IllegalStateException if all codes are in use
+     */
+    public int allocate() {
+        for (int attempt = 0; attempt < CODE_COUNT; attempt++) {
+            int index = Math.floorMod(counter.getAndIncrement(), CODE_COUNT);
+            int code = MIN_CODE + (int) ((long) index * STRIDE % CODE_COUNT);
+            if (reserved.add(code)) return code;
+        }
+        throw new IllegalStateException("No free join code");
+    }
+
+    /**
+     * Makes a game findable by its code.
+     * @param code the code reserved for the game
+     * @param game the game
+     */
+    public void register(int code, BattleShipGame game) {
+        games.put(code, game);
+    }
+
+    /**
+     * Removes a game and frees its code for reuse.
+     * @param code the code of the game
+     */
+    public void release(int code) {
+        games.remove(code);
+        reserved.remove(code);
+    }
+
+    /**
+     * Returns the game with the given code.
+     * @param code the join code
+     * @return the game or null if no registered game has the code
+     */
+    public BattleShipGame get(int code) {
+        return games.get(code);
+    }
+}
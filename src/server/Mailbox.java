@@ -0,0 +1,70 @@
+package server;
+
+import utils.Log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the events of one owner one at a time, in the order they were posted, on a shared executor.
+ * Any thread may post; the mailbox is drained by at most one executor thread at a time,
+ * so the owner's state needs no locks as long as it is only changed by its events.
+ */
+public class Mailbox {
+
+    private static final int BATCH_SIZE = 64;
+
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final Executor executor;
+    private final String name;
+
+    /**
+     * Creates a new mailbox.
+     * @param executor the executor that drains the mailbox
+     * @param name the name of the owner, used when an event fails
+     */
+    public Mailbox(Executor executor, String name) {
+        this.executor = executor;
+        this.name = name;
+    }
+
+    /**
+     * Posts an event. It runs after all events posted before it.
+     * @param event the event to run
+     */
+    public void post(Runnable event) {
+        events.add(event);
+        if (scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+    }
+
+    /**
+     * Runs queued events. After a batch the executor thread is handed back, so busy owners cannot starve others.
+     * An error thrown by an event is passed on to the executor, but the events after it still run.
+     */
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable event = events.poll();
+                if (event == null) break;
+
+                try {
+                    event.run();
+                } catch (RuntimeException e) {
+                    Log.error(name, "Event failed", e);
+                } catch (Error e) {
+                    Log.error(name, "Event failed", e);
+                    throw e;
+                }
+            }
+        } finally {
+            // Left set, the flag would keep every later event, deadlines and leaves included, queued forever
+            scheduled.set(false);
+
+            // An event may have been posted after the queue was found empty
+            if (!events.isEmpty() && scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package server;
+
+import protocol.GameOptions;
+import utils.Histogram;
+import utils.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pairs queued players in batches on a fixed tick.
+ * Players are put into buckets by the board size and move time they asked for and by their round-trip time,
+ * and are paired first come, first served within a bucket. A player who has waited longer than
+ * {@link Parameters#MATCHMAKING_LATENCY_WAIT_MILLIS} may also be paired across latency buckets.
+ */
+public class Matchmaker {
+
+    // Upper bounds of the latency buckets in milliseconds; slower players share the last bucket
+    private static final long[] LATENCY_BUCKETS = {50, 150};
+
+    private final MatchmakingQueue queue;
+    private volatile Server server; // set when the matchmaker is started
+
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong gamesCreated = new AtomicLong();
+    private final Histogram waitMillis = new Histogram();
+
+    /**
+     * Creates a new matchmaker.
+     * @param queue the queue the players wait in
+     */
+    public Matchmaker(MatchmakingQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * Starts matching players on every tick. Does nothing if the matchmaker already runs, e.g. when a stopped
+     * server is started again.
+     * @param server the server that registers the created games
+     * @param scheduler the scheduler that runs the ticks
+     */
+    public void start(Server server, ScheduledExecutorService scheduler) {
+        if (this.server != null) return;
+        this.server = server;
+        scheduler.scheduleAtFixedRate(this::tick, Parameters.MATCHMAKING_INTERVAL_MILLIS,
+                Parameters.MATCHMAKING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Pairs as many waiting players as possible.
+     */
+    private void tick() {
+        try {
+            ticks.incrementAndGet();
+            List<MatchmakingQueue.Entry> waiting = queue.waiting();
+            if (waiting.size() < 2) return;
+
+            // At most one unpaired player per bucket is left after the first pass
+            Map<Long, MatchmakingQueue.Entry> unpaired = new LinkedHashMap<>();
+            for (MatchmakingQueue.Entry entry : waiting) {
+                pairOrKeep(unpaired, bucketOf(entry, true), entry);
+            }
+
+            long now = System.nanoTime();
+            long latencyWait = TimeUnit.MILLISECONDS.toNanos(Parameters.MATCHMAKING_LATENCY_WAIT_MILLIS);
+            Map<Long, MatchmakingQueue.Entry> relaxed = new LinkedHashMap<>();
+            for (MatchmakingQueue.Entry entry : new ArrayList<>(unpaired.values())) {
+                if (now - entry.getEnqueuedAt() < latencyWait) continue;
+                pairOrKeep(relaxed, bucketOf(entry, false), entry);
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            Log.error("Server", "Matchmaking failed", e);
+        }
+    }
+
+    /**
+     * Pairs the entry with the unpaired entry of its bucket or keeps it as the bucket's unpaired entry.
+     */
+    private void pairOrKeep(Map<Long, MatchmakingQueue.Entry> unpaired, long bucket, MatchmakingQueue.Entry entry) {
+        MatchmakingQueue.Entry other = unpaired.remove(bucket);
+        if (other == null) {
+            unpaired.put(bucket, entry);
+        } else if (queue.takePair(other, entry)) {
+            createGame(other, entry);
+        } else {
+            // One of them left the queue; whoever is still waiting stays unpaired
+            unpaired.put(bucket, queue.contains(other.getPlayer()) ? other : entry);
+        }
+    }
+
+    private void createGame(MatchmakingQueue.Entry first, MatchmakingQueue.Entry second) {
+        long now = System.nanoTime();
+        waitMillis.record(TimeUnit.NANOSECONDS.toMillis(now - first.getEnqueuedAt()));
+        waitMillis.record(TimeUnit.NANOSECONDS.toMillis(now - second.getEnqueuedAt()));
+        gamesCreated.incrementAndGet();
+
+        ServerPlayer playerA = first.getPlayer();
+        ServerPlayer playerB = second.getPlayer();
+        BattleShipGame game = new BattleShipGame(server, optionsOf(first));
+        Log.info("Server", "Game created with player A: " + playerA.getUsername() +
+                " and player B: " + playerB.getUsername());
+
+        game.addPlayer(playerA);
+        game.addPlayer(playerB);
+
+        server.registerGame(game);
+    }
+
+    /**
+     * Returns the options of the game for a player; only the board size and the move time can be chosen.
+     */
+    private static GameOptions optionsOf(MatchmakingQueue.Entry entry) {
+        GameOptions options = new GameOptions();
+        GameOptions preferred = entry.getPreferredOptions();
+        if (preferred != null) {
+            options.setBoardSize(preferred.getBoardSize());
+            if (preferred.getMoveTime() > 0) options.setMoveTime(preferred.getMoveTime());
+        }
+        return options;
+    }
+
+    private static long bucketOf(MatchmakingQueue.Entry entry, boolean withLatency) {
+        GameOptions options = optionsOf(entry);
+        long bucket = ((long) options.getBoardSize() << 40) | ((long) options.getMoveTime() << 8);
+        if (!withLatency) return bucket;
+
+        long rtt = entry.getPlayer().getRoundTripMillis();
+        int latencyBucket = 0;
+        while (latencyBucket < LATENCY_BUCKETS.length && rtt > LATENCY_BUCKETS[latencyBucket]) latencyBucket++;
+        return bucket | latencyBucket;
+    }
+
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    public long getGamesCreated() {
+        return gamesCreated.get();
+    }
+
+    /**
+     * Returns the distribution of the time matched players waited in the queue.
+     * @return the wait times in milliseconds
+     */
+    public Histogram getWaitMillis() {
+        return waitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Matchmaker{" +
+                "ticks=" + ticks +
+                ", gamesCreated=" + gamesCreated +
+                ", waitMillis={" + waitMillis + "}" +
+                '}';
+    }
+}
@@ -0,0 +1,134 @@
+package server;
+
+import protocol.GameOptions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * First-come, first-served queue of players waiting for a game.
+ * Adding, removing and membership checks are lock-free and take constant time: the players are indexed by id,
+ * and a removed player's entry stays in the order until the matchmaker or the next purge skips it.
+ */
+public class MatchmakingQueue {
+
+    private static final int PURGE_THRESHOLD = 1024;
+
+    /**
+     * The place of a player in the queue. An entry is taken once, either by the matchmaker or by removing the player.
+     */
+    static class Entry {
+        private final ServerPlayer player;
+        private final GameOptions preferredOptions;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicBoolean taken = new AtomicBoolean(false);
+
+        Entry(ServerPlayer player, GameOptions preferredOptions) {
+            this.player = player;
+            this.preferredOptions = preferredOptions;
+        }
+
+        ServerPlayer getPlayer() {
+            return player;
+        }
+
+        GameOptions getPreferredOptions() {
+            return preferredOptions;
+        }
+
+        long getEnqueuedAt() {
+            return enqueuedAt;
+        }
+    }
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<Entry> order = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger removed = new AtomicInteger(0);
+
+    /**
+     * Adds a player to the end of the queue.
+     * @param player the player
+     * @param preferredOptions the options of the game the player wants to play
+     * @return false if the player is already queued
+     */
+    public boolean add(ServerPlayer player, GameOptions preferredOptions) {
+        Entry entry = new Entry(player, preferredOptions);
+        if (entries.putIfAbsent(player.getId(), entry) != null) return false;
+        order.offerLast(entry);
+        return true;
+    }
+
+    /**
+     * Removes a player from the queue. A player who is being matched at the same moment may still get the game.
+     * @param id the id of the player
+     * @return the removed player or null if the player was not queued
+     */
+    public ServerPlayer remove(UUID id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) return null;
+
+        // The matchmaker skips entries that were taken
+        entry.taken.compareAndSet(false, true);
+
+        if (removed.incrementAndGet() > PURGE_THRESHOLD && removed.get() > entries.size()) {
+            removed.set(0);
+            order.removeIf(e -> e.taken.get());
+        }
+        return entry.player;
+    }
+
+    public boolean contains(ServerPlayer player) {
+        return entries.containsKey(player.getId());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the entries of all queued players, longest waiting first, and drops the entries of removed players.
+     * Must only be called by the matchmaker.
+     * @return the waiting entries
+     */
+    List<Entry> waiting() {
+        List<Entry> waiting = new ArrayList<>(entries.size());
+        Iterator<Entry> iterator = order.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.taken.get()) {
+                iterator.remove();
+            } else {
+                waiting.add(entry);
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Takes two entries out of the queue for a game. Fails if either player was removed in the meantime,
+     * in which case the other one stays queued. Must only be called by the matchmaker.
+     * @param first the first entry
+     * @param second the second entry
+     * @return true if both players were taken
+     */
+    boolean takePair(Entry first, Entry second) {
+        if (!first.taken.compareAndSet(false, true)) return false;
+        if (!second.taken.compareAndSet(false, true)) {
+            first.taken.set(false);
+            // The first player may have left while the entry was taken
+            if (entries.get(first.player.getId()) != first) first.taken.compareAndSet(false, true);
+            return false;
+        }
+
+        entries.remove(first.player.getId(), first);
+        entries.remove(second.player.getId(), second);
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+package server;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Table model of the server window with one row per item, e.g. per game.
+ * Any thread may report that an item changed or was removed; the reports are only collected,
+ * and {@link #applyChanges()} applies them on the event dispatch thread, once per frame.
+ * Cells are read from the item when the table paints them, so only visible rows cost anything.
+ * @param <T> the type of the items
+ */
+public class MonitorTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    // Above this many changed rows a single full refresh is cheaper than one event per row
+    private static final int MAX_ROW_EVENTS = 256;
+
+    // The model is serializable as a Swing component, but never serialized; the items and functions stay out of it
+    private final String[] columnNames;
+    private final transient List<Function<T, Object>> columns;
+
+    // Latest report per item: true if it changed, false if it was removed
+    private final transient Map<T, Boolean> pending = new ConcurrentHashMap<>();
+
+    // Only used on the event dispatch thread
+    private final transient List<T> rows = new ArrayList<>();
+    private final transient Map<T, Integer> rowIndex = new HashMap<>();
+
+    /**
+     * Creates a new table model.
+     * @param columnNames the names of the columns
+     * @param columns the functions that read the cells of a row from its item, one per column
+     */
+    public MonitorTableModel(String[] columnNames, List<Function<T, Object>> columns) {
+        this.columnNames = columnNames;
+        this.columns = columns;
+    }
+
+    /**
+     * Reports that an item was added or changed. May be called from any thread.
+     * @param item the item
+     */
+    public void changed(T item) {
+        pending.put(item, true);
+    }
+
+    /**
+     * Reports that an item was removed. May be called from any thread.
+     * @param item the item
+     */
+    public void removed(T item) {
+        pending.put(item, false);
+    }
+
+    /**
+     * Applies the reported changes. Must be called on the event dispatch thread.
+     */
+    public void applyChanges() {
+        if (pending.isEmpty()) return;
+
+        List<Integer> updatedRows = new ArrayList<>();
+        boolean structureChanged = false;
+
+        for (T item : pending.keySet()) {
+            Boolean present = pending.remove(item);
+            if (present == null) continue;
+
+            Integer index = rowIndex.get(item);
+            if (present && index == null) {
+                rowIndex.put(item, rows.size());
+                rows.add(item);
+                structureChanged = true;
+            } else if (present) {
+                updatedRows.add(index);
+            } else if (index != null) {
+                // Move the last row into the gap, so removing a row does not shift all rows below it
+                T last = rows.remove(rows.size() - 1);
+                rowIndex.remove(item);
+                if (last != item) {
+                    rows.set(index, last);
+                    rowIndex.put(last, index);
+                }
+                structureChanged = true;
+            }
+        }
+
+        if (structureChanged || updatedRows.size() > MAX_ROW_EVENTS) {
+            fireTableDataChanged();
+        } else {
+            for (int row : updatedRows) {
+                fireTableRowsUpdated(row, row);
+            }
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return columns.get(column).apply(rows.get(row));
+    }
+}
@@ -4,6 +4,34 @@ public class Parameters {
 
     public static final int LOBBY_GAME_START_TIME = 5;
 
+    // How often players in the lobby are told the queue size, if it changed
+    public static final int QUEUE_BROADCAST_INTERVAL_MILLIS = 250;
+
+    // How often queued players are paired, and how long a player waits before the round-trip time is ignored
+    public static final int MATCHMAKING_INTERVAL_MILLIS = 250;
+    public static final int MATCHMAKING_LATENCY_WAIT_MILLIS = 5000;
+
+    // How often the send queues are checked for clients that stopped reading
+    public static final int LAG_CHECK_INTERVAL_MILLIS = 1000;
+
+    /**
+     * DEFAULT VALUES FOR ServerOptions
+     */
+
+    public static final int DEFAULT_NIO_EVENT_LOOPS = 2;
+
+    public static final int DEFAULT_STREAM_RESET_MESSAGES = 32;
+    public static final long DEFAULT_STREAM_RESET_BYTES = 256 * 1024;
+
+    public static final int DEFAULT_SEND_QUEUE_CAPACITY = 256;
+    public static final long DEFAULT_LAG_BUDGET_MILLIS = 5000;
+
+    public static final int DEFAULT_HOVER_RATE = 20;
+    // The hover relay ticks in whole microseconds, so it cannot run more often than once per microsecond
+    public static final int MAX_HOVER_RATE = 1_000_000;
+
+    public static final int DEFAULT_METRICS_INTERVAL_SECONDS = 60;
+
     /**
      * DEFAULT VALUES FOR GameOptions
      */
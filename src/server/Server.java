@@ -1,58 +1,157 @@
 package server;
 
-import protocol.GameState;
+import protocol.GameOptions;
 import protocol.messages.ErrorMessage;
 import protocol.ErrorType;
 import protocol.messages.lobby.QueueUpdateMessage;
+import protocol.transport.EncodedMessage;
+import server.metrics.ServerMetrics;
+import server.transport.NioServer;
+import server.transport.SocketConnection;
+import utils.Log;
 
+import java.awt.GraphicsEnvironment;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class Server {
 
     private static Server instance;
     private static int PORT = 12345;
     private ServerSocket serverSocket;
+    private NioServer nioServer;
     private boolean running = false;
 
-    private final List<ServerPlayer> players = new ArrayList<>();
-    private final List<Thread> clientThreads = new ArrayList<>();
+    private final ServerOptions options;
 
-    private final Map<UUID, GameContainer> games = new HashMap<>();
+    private final Map<UUID, ServerPlayer> players = new ConcurrentHashMap<>();
+    private final Map<UUID, Thread> clientThreads = new ConcurrentHashMap<>();
 
-    private final ArrayList<ServerPlayer> queue = new ArrayList<>();
-    private final ServerGUI gui;
+    private final Map<UUID, GameContainer> games = new ConcurrentHashMap<>();
+    // Index from player id to the game the player joined, so messages are dispatched without scanning all games
+    private final Map<UUID, BattleShipGame> gamesByPlayer = new ConcurrentHashMap<>();
+    private final JoinCodeRegistry joinCodes = new JoinCodeRegistry();
+
+    private final MatchmakingQueue queue = new MatchmakingQueue();
+    private final Matchmaker matchmaker = new Matchmaker(queue);
+    private int broadcastQueueSize = 0; // only used by the queue broadcast task
+    private volatile ServerMonitor monitor; // null while no monitor is attached
+
+    // Runs periodic server tasks and the phase deadlines of all games; a task must never block
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+            Runtime.getRuntime().availableProcessors(), Thread.ofPlatform().name("server-scheduler-", 0).daemon().factory());
+    private final HoverRelay hoverRelay = new HoverRelay();
+    private final ServerMetrics metrics = new ServerMetrics();
+
+    // Processes the mailboxes of all games
+    private final ExecutorService gameExecutor;
 
     /**
      * Main method to start the server
-     * -p <port> to specify the port
+     * --p <port> to specify the port
+     * --nio to use the non-blocking transport
+     * --nio-threads <count> to specify the number of event loops of the non-blocking transport
+     * --virtual to run players, their writers and the game events on virtual threads
+     * --carriers <count> to specify the number of carrier threads of the virtual threads
+     * --reset-messages <count> to reset the object stream of a blocking connection after that many messages
+     * --reset-bytes <count> to reset the object stream of a blocking connection after that many bytes
+     * --send-queue <count> to specify how many outgoing messages may be queued per connection
+     * --lag-budget <millis> to specify how long a queued outgoing message may wait before the client is disconnected
+     * --hover-rate <hertz> to specify how often the hover of a player is relayed to the opponent at most
+     * --headless to start without the server window
+     * --log-level <level> to specify the lowest level that is logged (DEBUG, INFO, WARN or ERROR)
+     * --metrics-interval <seconds> to specify how often the server metrics are logged
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        ServerOptions options = new ServerOptions();
+
         for (int i = 0; i < args.length; i++) {
             if (args[i].equals("--p")) {
                 PORT = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--nio")) {
+                options.setNio(true);
+            } else if (args[i].equals("--nio-threads")) {
+                options.setEventLoops(Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--virtual")) {
+                options.setVirtualThreads(true);
+            } else if (args[i].equals("--carriers")) {
+                options.setCarrierThreads(Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--reset-messages")) {
+                options.setStreamResetMessages(Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--reset-bytes")) {
+                options.setStreamResetBytes(Long.parseLong(args[i + 1]));
+            } else if (args[i].equals("--send-queue")) {
+                options.setSendQueueCapacity(Integer.parseInt(args[i + 1]));
+            } else if (args[i].equals("--lag-budget")) {
+                options.setLagBudgetMillis(Long.parseLong(args[i + 1]));
+            } else if (args[i].equals("--hover-rate")) {
+                int hoverRate = Integer.parseInt(args[i + 1]);
+                if (hoverRate > Parameters.MAX_HOVER_RATE) {
+                    Log.warn("Server", "Hover rate " + hoverRate + " is too high, using " + Parameters.MAX_HOVER_RATE);
+                    hoverRate = Parameters.MAX_HOVER_RATE;
+                }
+                options.setHoverRate(hoverRate);
+            } else if (args[i].equals("--headless")) {
+                options.setHeadless(true);
+            } else if (args[i].equals("--log-level")) {
+                Log.setLevel(Log.Level.valueOf(args[i + 1].toUpperCase()));
+            } else if (args[i].equals("--metrics-interval")) {
+                options.setMetricsIntervalSeconds(Integer.parseInt(args[i + 1]));
             }
         }
+
+        // The carrier pool is sized once, when the first virtual thread is created
+        if (options.isVirtualThreads() && options.getCarrierThreads() > 0) {
+            System.setProperty("jdk.virtualThreadScheduler.parallelism", String.valueOf(options.getCarrierThreads()));
+        }
         printLocalAddress();
 
-        instance = new Server(); // Create a new instance of the server
+        instance = new Server(options); // Create a new instance of the server
         instance.startServer();
     }
 
     /**
-     * Creates a new server instance and initializes the GUI.
+     * Creates a new server instance with default options and opens the server window.
      */
     public Server() {
-        this.gui = new ServerGUI(this);
+        this(new ServerOptions());
+    }
+
+    /**
+     * Creates a new server instance and opens the server window unless the server runs headless.
+     * @param options the startup options of the server
+     */
+    public Server(ServerOptions options) {
+        this.options = options;
+        if (!options.isHeadless() && !GraphicsEnvironment.isHeadless()) {
+            this.monitor = new ServerGUI(this);
+        }
+        this.gameExecutor = options.isVirtualThreads()
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), Thread.ofPlatform().name("game-", 0).daemon().factory());
+        this.scheduler.setRemoveOnCancelPolicy(true); // deadlines are cancelled on every move
+        this.hoverRelay.start(scheduler, options.getHoverRate());
+        this.scheduler.scheduleAtFixedRate(this::broadcastQueueState, Parameters.QUEUE_BROADCAST_INTERVAL_MILLIS,
+                Parameters.QUEUE_BROADCAST_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (options.getLagBudgetMillis() > 0) {
+            this.scheduler.scheduleAtFixedRate(this::closeLaggingConnections, Parameters.LAG_CHECK_INTERVAL_MILLIS,
+                    Parameters.LAG_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
         instance = this;
     }
 
@@ -62,32 +161,60 @@ public class Server {
     public void startServer() {
         if (running) return;
 
+        // The matchmaker and the metrics get the server only here, once the server is fully constructed
+        matchmaker.start(this, scheduler);
+        metrics.start(this, scheduler, options.getMetricsIntervalSeconds());
+
+        if (options.isNio()) {
+            startNioServer();
+            return;
+        }
+
         new Thread(() -> {
             try {
                 serverSocket = new ServerSocket(PORT);
                 running = true;
-                this.gui.updateServerOnlineStatus(true);
-                System.out.println("[Server] Starting server on port " + PORT);
+                updateServerOnlineStatus(true);
+                Log.info("Server", "Starting server on port " + PORT + (options.isVirtualThreads() ? " with virtual threads" : ""));
 
                 while (running) {
                     Socket clientSocket = serverSocket.accept();
-                    System.out.println("[Server] New connection from " + clientSocket.getInetAddress().getHostAddress() + ":" + clientSocket.getPort() + " (" + clientSocket.getInetAddress().getHostName() + ");");
+                    // No reverse lookup of the host name, it could block the accept loop
+                    Log.info("Server", () -> "New connection from " + clientSocket.getInetAddress().getHostAddress() + ":" + clientSocket.getPort());
 
-                    ServerPlayer player = new ServerPlayer(clientSocket, this);
-                    players.add(player);
+                    String writerName = "writer-" + clientSocket.getInetAddress().getHostAddress() + ":" + clientSocket.getPort();
+                    SocketConnection connection = new SocketConnection(clientSocket, options,
+                            task -> newThread(task, writerName), metrics);
+                    ServerPlayer player = new ServerPlayer(connection, this);
+                    addPlayer(player);
 
-                    Thread clientThread = new Thread(player);
-                    clientThreads.add(clientThread);
+                    Thread clientThread = newThread(player, "player-" + player.getUsername());
+                    clientThreads.put(player.getId(), clientThread);
                     clientThread.start();
-
-                    updatePlayerList();
                 }
             } catch (IOException e) {
-                if (running) e.printStackTrace();
+                if (running) Log.error("Server", "Accept loop failed", e);
             }
         }).start();
     }
 
+    /**
+     * Starts the non-blocking transport, where a few event loops serve all connections.
+     */
+    private void startNioServer() {
+        try {
+            nioServer = new NioServer(this, PORT, options.getEventLoops());
+        } catch (IOException e) {
+            Log.error("Server", "Could not start the non-blocking server", e);
+            return;
+        }
+        running = true;
+        updateServerOnlineStatus(true);
+        Log.info("Server", "Starting non-blocking server on port " + PORT + " with " + options.getEventLoops() + " event loops");
+
+        new Thread(nioServer, "nio-acceptor").start();
+    }
+
     /**
      * Stops the server, closes all connections and unregisters all games.
      */
@@ -98,48 +225,76 @@ public class Server {
             for (UUID gameId : new ArrayList<>(games.keySet())) {
                 unregisterGame(gameId);
             }
-            for (ServerPlayer p : players) {
+            for (ServerPlayer p : players.values()) {
                 p.sendMessage(new ErrorMessage(ErrorType.SERVER_CLOSED));
             }
             if (serverSocket != null) {
                 serverSocket.close();
-                System.out.println("[Server] Stopping server on port " + PORT);
+                Log.info("Server", "Stopping server on port " + PORT);
             }
-            for (Thread t : clientThreads) {
+            if (nioServer != null) {
+                nioServer.close();
+                nioServer = null;
+                Log.info("Server", "Stopping non-blocking server on port " + PORT);
+            }
+            for (Thread t : clientThreads.values()) {
                 t.interrupt();
             }
+            ServerMonitor monitor = this.monitor;
+            if (monitor != null) players.values().forEach(monitor::onPlayerDisconnected);
             players.clear();
             clientThreads.clear();
-            updatePlayerList();
-            updateGameList();
+            Log.info("Server", hoverRelay.toString());
+            Log.info("Server", matchmaker.toString());
+            Log.info("Metrics", "\n" + metrics.dump());
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.error("Server", "Could not stop the server", e);
         }
     }
 
     /**
-     * Registers a new game. Der Server erstellt intern den Game-Thread und startet ihn.
+     * Registers a new game. The game needs no thread of its own, its events run on the game executor.
      * @param game the game to register
      */
     public void registerGame(BattleShipGame game) {
-        Thread gameThread = new Thread(game);
-        GameContainer container = new GameContainer(game, gameThread);
+        GameContainer container = new GameContainer(game);
         games.put(game.getGameState().getId(), container);
-        gameThread.start();
-        updateGameList();
+        joinCodes.register(game.getGameState().getSessionCode(), game);
+        onGameChanged(game);
     }
 
     /**
-     * Unregisters a game with the given id by interrupting its thread and removing it from the map.
+     * Creates an unstarted thread for a player or its writer, virtual or platform depending on the server options.
+     * @param task the task the thread runs
+     * @param name the name of the thread
+     * @return the new thread
+     */
+    private Thread newThread(Runnable task, String name) {
+        if (options.isVirtualThreads()) {
+            return Thread.ofVirtual().name(name).unstarted(task);
+        }
+        return new Thread(task, name);
+    }
+
+    /**
+     * Unregisters a game with the given id by cancelling its scheduled tasks and removing it from the map.
      * @param id id of the game to remove
      */
     public void unregisterGame(UUID id) {
-        GameContainer container = games.get(id);
+        GameContainer container = games.remove(id);
         if (container != null) {
-            container.getThread().interrupt();
-            games.remove(id);
-            System.out.println("[Server] Game " + id + " removed");
-            updateGameList();
+            BattleShipGame game = container.getGame();
+            game.cancelScheduledTasks();
+            joinCodes.release(game.getGameState().getSessionCode());
+            if (game.getPlayerA() != null) gamesByPlayer.remove(game.getPlayerA().getId(), game);
+            if (game.getPlayerB() != null) gamesByPlayer.remove(game.getPlayerB().getId(), game);
+            // A hover still pending from this game must not reach the player in the next one
+            if (game.getPlayerA() != null) hoverRelay.forget(game.getPlayerA());
+            if (game.getPlayerB() != null) hoverRelay.forget(game.getPlayerB());
+            Log.info("Server", "Game " + id + " removed");
+
+            ServerMonitor monitor = this.monitor;
+            if (monitor != null) monitor.onGameRemoved(game);
         }
     }
 
@@ -148,18 +303,17 @@ public class Server {
      * @param player the player for whom to retrieve the game
      * @return the game the player is in or null if none
      */
-    public synchronized BattleShipGame getGame(ServerPlayer player) {
-        for (GameContainer container : games.values()) {
-            BattleShipGame game = container.getGame();
-            if (game == null) continue;
-            if (game.getPlayerA() != null && game.getPlayerA().getId().equals(player.getId())) {
-                return game;
-            }
-            if (game.getPlayerB() != null && game.getPlayerB().getId().equals(player.getId())) {
-                return game;
-            }
-        }
-        return null;
+    public BattleShipGame getGame(ServerPlayer player) {
+        return gamesByPlayer.get(player.getId());
+    }
+
+    /**
+     * Records that a player joined a game. The entry is removed when the game is unregistered.
+     * @param player the player who joined
+     * @param game the game the player joined
+     */
+    public void onPlayerJoinedGame(ServerPlayer player, BattleShipGame game) {
+        gamesByPlayer.put(player.getId(), game);
     }
 
     /**
@@ -168,22 +322,17 @@ public class Server {
      * @return the game with the given id or null if none
      */
     public BattleShipGame getGameFromJoinCode(int joinCode) {
-        for (GameContainer container : games.values()) {
-            BattleShipGame game = container.getGame();
-            if (game.getGameState().getSessionCode() == joinCode) {
-                return game;
-            }
-        }
-        return null;
+        return joinCodes.get(joinCode);
     }
 
     /**
      * Adds a player to the queue and sends an update message to the player.
+     * The matchmaker pairs the player on one of its next ticks.
      * @param player the player to add to the queue
+     * @param preferredOptions the options of the game the player wants to play, null for the default options
      */
-    public void addToQueue(ServerPlayer player) {
-        queue.add(player);
-        player.sendMessage(new QueueUpdateMessage(queue.size(), true));
+    public void addToQueue(ServerPlayer player, GameOptions preferredOptions) {
+        if (queue.add(player, preferredOptions)) player.sendMessage(new QueueUpdateMessage(queue.size(), true));
     }
 
     /**
@@ -191,60 +340,129 @@ public class Server {
      * @param id the id of the player to remove from the queue
      */
     public void removeFromQueue(UUID id) {
-        queue.removeIf(player -> {
-            if (player.getId().equals(id)) {
-                player.sendMessage(new QueueUpdateMessage(queue.size(), false));
-                return true;
+        ServerPlayer player = queue.remove(id);
+        if (player != null) player.sendMessage(new QueueUpdateMessage(queue.size(), false));
+    }
+
+    /**
+     * Tells all players in the lobby the queue size if it changed since the last broadcast.
+     * Players who join or leave the queue are answered directly, so joins and leaves in between cost one broadcast.
+     */
+    private void broadcastQueueState() {
+        try {
+            int queueSize = queue.size();
+            if (queueSize == broadcastQueueSize) return;
+            broadcastQueueSize = queueSize;
+
+            // Every player gets one of two messages, so each is encoded only once
+            EncodedMessage inQueue = new EncodedMessage(new QueueUpdateMessage(queueSize, true));
+            EncodedMessage notInQueue = new EncodedMessage(new QueueUpdateMessage(queueSize, false));
+
+            for (ServerPlayer player : players.values()) {
+                if (player.isInGame()) continue;
+                player.sendMessage(queue.contains(player) ? inQueue : notInQueue);
             }
-            return false;
-        });
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            Log.error("Server", "Queue broadcast failed", e);
+        }
     }
 
     /**
-     * Updates the player list in the GUI.
+     * Disconnects players whose client stopped reading, even if nothing new is sent to them.
      */
-    private void updatePlayerList() {
-        StringBuilder sb = new StringBuilder();
-        for (ServerPlayer p : players) {
-            sb.append(p.getUsername()).append(" (").append(p.getIp()).append(")\n");
+    private void closeLaggingConnections() {
+        try {
+            for (ServerPlayer player : players.values()) {
+                if (player.closeIfLagging()) {
+                    Log.warn("Server", "Disconnected " + player.getUsername() + ", the send queue exceeded its lag budget");
+                }
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            Log.error("Server", "Lag check failed", e);
         }
-        gui.updatePlayerList(sb.toString());
-        gui.updatePlayerCount(players.size());
     }
 
     /**
-     * Updates the game list in the GUI.
+     * Tells the monitor, if one is attached, that a game was registered or changed.
+     * @param game the game that changed
      */
-    public void updateGameList() {
-        StringBuilder sb = new StringBuilder();
-        for (GameContainer container : games.values()) {
-            BattleShipGame game = container.getGame();
-            // Nur aktive Spiele anzeigen
-            if (game.getGameState().getStatus().equals(GameState.GameStatus.GAME_OVER)) continue;
-            String gameId = game.getGameState().getId().toString();
-            String playerAName = game.getPlayerA() != null ? game.getPlayerA().getUsername() : "waiting";
-            String playerBName = game.getPlayerB() != null ? game.getPlayerB().getUsername() : "waiting";
-            int moveACount = game.getGameState().getPlayerA() != null ? game.getGameState().getPlayerA().getMoves().size() : 0;
-            int moveBCount = game.getGameState().getPlayerB() != null ? game.getGameState().getPlayerB().getMoves().size() : 0;
-            String status = game.getGameState().getStatus().toString();
-            sb.append("Game ID: ").append(gameId).append("\n");
-            sb.append("Size: ").append(game.getSize()).append("\n");
-            sb.append("Join Code: ").append(game.getGameState().getSessionCode()).append("\n");
-            sb.append("Game ID: ").append(gameId).append("\n");
-            sb.append("Current Turn: ").append(game.getGameState().getCurrentTurnPlayer() != null ? game.getGameState().getCurrentTurnPlayer().getName() : "-").append("\n");
-            sb.append("Player A: ").append(playerAName).append(" (Moves: ").append(moveACount).append(")\n");
-            sb.append("Player B: ").append(playerBName).append(" (Moves: ").append(moveBCount).append(")\n");
-            sb.append("Status: ").append(status).append("\n");
-            sb.append("--------------\n");
+    public void onGameChanged(BattleShipGame game) {
+        ServerMonitor monitor = this.monitor;
+        if (monitor != null) monitor.onGameChanged(game);
+    }
+
+    /**
+     * Adds a newly connected player to the server.
+     * @param player the player that connected
+     */
+    public void addPlayer(ServerPlayer player) {
+        players.put(player.getId(), player);
+
+        ServerMonitor monitor = this.monitor;
+        if (monitor != null) monitor.onPlayerConnected(player);
+    }
+
+    /**
+     * Attaches a monitor that is told about the server state from now on, or detaches it.
+     * @param monitor the monitor or null to stop reporting changes
+     */
+    public void setMonitor(ServerMonitor monitor) {
+        this.monitor = monitor;
+        if (monitor != null) {
+            monitor.updateServerOnlineStatus(running);
+            players.values().forEach(monitor::onPlayerConnected);
+            games.values().forEach(container -> monitor.onGameChanged(container.getGame()));
         }
-        gui.updateGameList(sb.toString());
     }
 
-    public List<ServerPlayer> getPlayers() {
-        return players;
+    private void updateServerOnlineStatus(boolean isOnline) {
+        ServerMonitor monitor = this.monitor;
+        if (monitor != null) monitor.updateServerOnlineStatus(isOnline);
     }
 
-    public ArrayList<ServerPlayer> getQueue() {
+    public ServerOptions getOptions() {
+        return options;
+    }
+
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
+    public JoinCodeRegistry getJoinCodes() {
+        return joinCodes;
+    }
+
+    public ExecutorService getGameExecutor() {
+        return gameExecutor;
+    }
+
+    public HoverRelay getHoverRelay() {
+        return hoverRelay;
+    }
+
+    /**
+     * Returns the registered games.
+     * @return a snapshot of the games
+     */
+    public List<BattleShipGame> getGames() {
+        return games.values().stream().map(GameContainer::getGame).toList();
+    }
+
+    public ServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public Collection<ServerPlayer> getPlayers() {
+        return players.values();
+    }
+
+    public Matchmaker getMatchmaker() {
+        return matchmaker;
+    }
+
+    public MatchmakingQueue getQueue() {
         return queue;
     }
 
@@ -258,14 +476,16 @@ public class Server {
      */
     public void removePlayer(ServerPlayer player) {
         BattleShipGame game = getGame(player);
-        System.out.println("[Server] Player " + player.getUsername() + " left the server");
+        Log.info("Server", "Player " + player.getUsername() + " left the server");
 
         if (game != null) {
             game.removePlayer(player);
         }
-        players.remove(player);
-        updatePlayerList();
-        updateGameList();
+        players.remove(player.getId());
+        clientThreads.remove(player.getId());
+
+        ServerMonitor monitor = this.monitor;
+        if (monitor != null) monitor.onPlayerDisconnected(player);
     }
 
     /**
@@ -1,31 +1,57 @@
 package server;
+import protocol.ClientPlayer;
+import protocol.GameState;
+
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
+import java.util.function.Function;
+
+public class ServerGUI extends JFrame implements ServerMonitor {
 
-public class ServerGUI extends JFrame {
+    // The tables are refreshed at most this often, however many players and games change in between
+    private static final int REFRESH_INTERVAL_MILLIS = 100;
 
     private JButton toggleButton;
-    private JTextArea playerList;
-    private JTextArea gameList;
     private JLabel playerCountLabel;
     private Server server;
 
+    private final MonitorTableModel<ServerPlayer> playerModel = new MonitorTableModel<>(
+            new String[]{"Name", "IP", "Round trip (ms)"},
+            List.<Function<ServerPlayer, Object>>of(
+                    ServerPlayer::getUsername,
+                    ServerPlayer::getIp,
+                    ServerPlayer::getRoundTripMillis));
+
+    private final MonitorTableModel<BattleShipGame> gameModel = new MonitorTableModel<>(
+            new String[]{"Join Code", "Size", "Status", "Player A", "Moves A", "Player B", "Moves B", "Current Turn"},
+            List.<Function<BattleShipGame, Object>>of(
+                    game -> game.getGameState().getSessionCode(),
+                    BattleShipGame::getSize,
+                    game -> game.getGameState().getStatus(),
+                    game -> nameOf(game.getPlayerA()),
+                    game -> movesOf(game.getGameState().getPlayerA()),
+                    game -> nameOf(game.getPlayerB()),
+                    game -> movesOf(game.getGameState().getPlayerB()),
+                    game -> {
+                        ClientPlayer turn = game.getGameState().getCurrentTurnPlayer();
+                        return turn != null ? turn.getName() : "-";
+                    }));
+
     public ServerGUI(Server server) {
 
         this.server = server;
         setTitle("BattleShip Server");
-        setSize(600, 500);
+        setSize(800, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        playerList = new JTextArea();
-        playerList.setEditable(false);
-        JScrollPane playerScrollPane = new JScrollPane(playerList);
+        JTable playerTable = new JTable(playerModel);
+        JScrollPane playerScrollPane = new JScrollPane(playerTable);
         playerScrollPane.setBorder(BorderFactory.createTitledBorder("Players online"));
 
-        gameList = new JTextArea();
-        gameList.setEditable(false);
-        JScrollPane gameScrollPane = new JScrollPane(gameList);
+        JTable gameTable = new JTable(gameModel);
+        JScrollPane gameScrollPane = new JScrollPane(gameTable);
         gameScrollPane.setBorder(BorderFactory.createTitledBorder("Active games"));
 
         JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, playerScrollPane, gameScrollPane);
@@ -49,15 +75,29 @@ public class ServerGUI extends JFrame {
 
         add(bottomPanel, BorderLayout.SOUTH);
         setVisible(true);
+
+        new Timer(REFRESH_INTERVAL_MILLIS, e -> refresh()).start();
+    }
+
+    /**
+     * Applies the changes reported since the last refresh. Runs on the event dispatch thread.
+     */
+    private void refresh() {
+        playerModel.applyChanges();
+        gameModel.applyChanges();
+        playerCountLabel.setText("Connected Players: " + playerModel.getRowCount());
     }
 
     /**
      * Updates the server online status.
      * @param isOnline true if the server is online, false otherwise.
      */
+    @Override
     public void updateServerOnlineStatus(boolean isOnline) {
-        toggleButton.setText(isOnline ? "Stop Server" : "Start Server");
-        toggleButton.setBackground(isOnline ? Color.GREEN : Color.RED);
+        SwingUtilities.invokeLater(() -> {
+            toggleButton.setText(isOnline ? "Stop Server" : "Start Server");
+            toggleButton.setBackground(isOnline ? Color.GREEN : Color.RED);
+        });
     }
 
     /**
@@ -72,27 +112,33 @@ public class ServerGUI extends JFrame {
         updateServerOnlineStatus(server.isRunning());
     }
 
-    /**
-     * Updates the player list displayed in the GUI.
-     * @param players A string representation of the players currently connected to the server.
-     */
-    public void updatePlayerList(String players) {
-        playerList.setText(players);
+    @Override
+    public void onPlayerConnected(ServerPlayer player) {
+        playerModel.changed(player);
     }
 
-    /**
-     * Updates the game list displayed in the GUI.
-     * @param count The number of players currently connected to the server.
-     */
-    public void updatePlayerCount(int count) {
-        playerCountLabel.setText("Connected Players: " + count);
+    @Override
+    public void onPlayerDisconnected(ServerPlayer player) {
+        playerModel.removed(player);
     }
 
-    /**
-     * Updates the game list displayed in the GUI.
-     * @param games A string representation of the games currently active on the server.
-     */
-    public void updateGameList(String games) {
-        gameList.setText(games);
+    @Override
+    public void onGameChanged(BattleShipGame game) {
+        // A finished game is removed right after its last change, so it must not come back as a row
+        if (game.getGameState().getStatus() == GameState.GameStatus.GAME_OVER) return;
+        gameModel.changed(game);
+    }
+
+    @Override
+    public void onGameRemoved(BattleShipGame game) {
+        gameModel.removed(game);
+    }
+
+    private static String nameOf(ServerPlayer player) {
+        return player != null ? player.getUsername() : "waiting";
+    }
+
+    private static int movesOf(ClientPlayer player) {
+        return player != null ? player.getMoves().size() : 0;
     }
-}
\ No newline at end of file
+}
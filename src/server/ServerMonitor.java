@@ -0,0 +1,39 @@
+package server;
+
+/**
+ * Observer of the server state, e.g. the server window.
+ * The server reports which player or game changed; the monitor decides when and what to read from it.
+ * Reports may arrive on any thread and must return quickly.
+ */
+public interface ServerMonitor {
+
+    /**
+     * Called when the server starts or stops listening.
+     * @param isOnline true if the server is online, false otherwise.
+     */
+    void updateServerOnlineStatus(boolean isOnline);
+
+    /**
+     * Called when a player connected.
+     * @param player the player
+     */
+    void onPlayerConnected(ServerPlayer player);
+
+    /**
+     * Called when a player disconnected.
+     * @param player the player
+     */
+    void onPlayerDisconnected(ServerPlayer player);
+
+    /**
+     * Called when a game was registered or its state changed, e.g. after a move.
+     * @param game the game
+     */
+    void onGameChanged(BattleShipGame game);
+
+    /**
+     * Called when a game was unregistered.
+     * @param game the game
+     */
+    void onGameRemoved(BattleShipGame game);
+}
@@ -0,0 +1,151 @@
+package server;
+
+/**
+ * Startup options of the server, parsed from the command line in {@link Server#main(String[])}.
+ */
+public class ServerOptions {
+
+    private boolean nio = false;
+    private int eventLoops = Parameters.DEFAULT_NIO_EVENT_LOOPS;
+    private boolean virtualThreads = false;
+    private int carrierThreads = 0;
+    private int streamResetMessages = Parameters.DEFAULT_STREAM_RESET_MESSAGES;
+    private long streamResetBytes = Parameters.DEFAULT_STREAM_RESET_BYTES;
+    private int sendQueueCapacity = Parameters.DEFAULT_SEND_QUEUE_CAPACITY;
+    private long lagBudgetMillis = Parameters.DEFAULT_LAG_BUDGET_MILLIS;
+    private int hoverRate = Parameters.DEFAULT_HOVER_RATE;
+    private boolean headless = false;
+    private int metricsIntervalSeconds = Parameters.DEFAULT_METRICS_INTERVAL_SECONDS;
+
+    /**
+     * Sets whether the non-blocking selector transport should be used instead of one thread per connection.
+     * @param nio true to use the non-blocking transport
+     */
+    public void setNio(boolean nio) {
+        this.nio = nio;
+    }
+
+    /**
+     * Sets whether the server runs without its window. The window is also skipped if the JVM has no display.
+     * @param headless true to start without the window
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Sets the number of event-loop threads used by the non-blocking transport.
+     * @param eventLoops the number of event loops, at least 1
+     */
+    public void setEventLoops(int eventLoops) {
+        this.eventLoops = Math.max(1, eventLoops);
+    }
+
+    /**
+     * Sets whether players, their writers and the game events should run on virtual threads instead of platform threads.
+     * @param virtualThreads true to use virtual threads
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Sets the number of carrier threads shared by all virtual threads.
+     * @param carrierThreads the number of carrier threads, 0 to keep the JVM default (one per core)
+     */
+    public void setCarrierThreads(int carrierThreads) {
+        this.carrierThreads = Math.max(0, carrierThreads);
+    }
+
+    /**
+     * Sets after how many messages the object stream of a blocking connection is reset.
+     * @param streamResetMessages the number of messages, 0 to disable the message limit
+     */
+    public void setStreamResetMessages(int streamResetMessages) {
+        this.streamResetMessages = Math.max(0, streamResetMessages);
+    }
+
+    /**
+     * Sets after how many bytes the object stream of a blocking connection is reset.
+     * @param streamResetBytes the number of bytes, 0 to disable the byte limit
+     */
+    public void setStreamResetBytes(long streamResetBytes) {
+        this.streamResetBytes = Math.max(0, streamResetBytes);
+    }
+
+    /**
+     * Sets how many outgoing messages may be queued per connection before the client is disconnected.
+     * @param sendQueueCapacity the capacity of the send queue, at least 1
+     */
+    public void setSendQueueCapacity(int sendQueueCapacity) {
+        this.sendQueueCapacity = Math.max(1, sendQueueCapacity);
+    }
+
+    /**
+     * Sets how long a queued outgoing message may wait before the client is considered too slow and disconnected.
+     * @param lagBudgetMillis the lag budget in milliseconds, 0 to disable the limit
+     */
+    public void setLagBudgetMillis(long lagBudgetMillis) {
+        this.lagBudgetMillis = Math.max(0, lagBudgetMillis);
+    }
+
+    /**
+     * Sets how many hover messages per second are relayed to the opponent of a player at most.
+     * @param hoverRate the maximum rate in hertz, 0 to relay every hover immediately; capped at {@link Parameters#MAX_HOVER_RATE}
+     */
+    public void setHoverRate(int hoverRate) {
+        this.hoverRate = Math.min(Math.max(0, hoverRate), Parameters.MAX_HOVER_RATE);
+    }
+
+    /**
+     * Sets how often the server metrics are written to the log.
+     * @param metricsIntervalSeconds the time between two dumps in seconds, 0 to never write them
+     */
+    public void setMetricsIntervalSeconds(int metricsIntervalSeconds) {
+        this.metricsIntervalSeconds = Math.max(0, metricsIntervalSeconds);
+    }
+
+    public boolean isNio() {
+        return nio;
+    }
+
+    public int getEventLoops() {
+        return eventLoops;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getCarrierThreads() {
+        return carrierThreads;
+    }
+
+    public int getStreamResetMessages() {
+        return streamResetMessages;
+    }
+
+    public long getStreamResetBytes() {
+        return streamResetBytes;
+    }
+
+    public int getSendQueueCapacity() {
+        return sendQueueCapacity;
+    }
+
+    public long getLagBudgetMillis() {
+        return lagBudgetMillis;
+    }
+
+    public int getHoverRate() {
+        return hoverRate;
+    }
+
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public int getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+}
@@ -13,31 +13,44 @@ import protocol.messages.game.ingame.PlayerHoverMessage;
 import protocol.messages.game.ingame.PlayerMoveMessage;
 import protocol.messages.lobby.CreateGameMessage;
 import protocol.messages.lobby.JoinGameWithCodeMessage;
+import protocol.messages.lobby.JoinQueueMessage;
 import protocol.messages.lobby.QueueUpdateMessage;
+import protocol.transport.EncodedMessage;
+import server.transport.Connection;
+import server.transport.SocketConnection;
 import utils.Usernames;
+import utils.Log;
 
 import java.io.*;
 import java.net.Socket;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class ServerPlayer implements Runnable {
 
     private final Server server;
 
-    private final Socket socket;
+    private final Connection connection;
     private final UUID id;
-    private ObjectOutputStream out;
     private final String username;
     private final String ip;
+    private final String logSource;
 
     // Server internal player state
-    private boolean isInGame = false;
+    private volatile boolean isInGame = false;
+    private volatile long registerSentAt = 0;
+    private volatile long roundTripMillis = -1;
 
     public ServerPlayer(Socket socket, Server server) {
-        this.socket = socket;
+        this(new SocketConnection(socket, server.getMetrics()), server);
+    }
+
+    public ServerPlayer(Connection connection, Server server) {
+        this.connection = connection;
         this.id = UUID.randomUUID();
-        this.ip = socket.getInetAddress().getHostAddress();
+        this.ip = connection.getIp();
         this.username = Usernames.generate();
+        this.logSource = "Player " + username;
         this.server = server;
     }
 
@@ -45,188 +58,218 @@ public class ServerPlayer implements Runnable {
     public String getIp() { return ip; }
 
     /**
-     * This method is called when the player is registered.
+     * Reads messages from a blocking connection on the player's own thread.
+     * Non-blocking connections are driven by their event loop instead and never call this method.
      */
     @Override
     public void run() {
+        if (!(connection instanceof SocketConnection socketConnection)) return;
+
         try {
-            out = new ObjectOutputStream(socket.getOutputStream());
-            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+            socketConnection.open();
 
-            sendMessage(new RegisterMessage(username, id));
-            sendMessage(new QueueUpdateMessage(server.getQueue().size(), false));
+            onConnect();
 
-            while (socket.isConnected()) {
-                Message received = (Message) in.readObject();
+            while (socketConnection.isConnected()) {
+                handleMessage(socketConnection.readMessage());
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            socketConnection.close(); // stops the writer
+            onDisconnect();
+        }
+    }
 
-                BattleShipGame game = server.getGame(this);
+    /**
+     * This method is called when the player is registered.
+     */
+    public void onConnect() {
+        registerSentAt = System.nanoTime(); // the acknowledgement measures the round-trip time
+        sendMessage(new RegisterMessage(username, id, connection.supportsBinaryCodec()));
+        sendMessage(new QueueUpdateMessage(server.getQueue().size(), false));
+    }
 
-                if(!received.getClass().getSimpleName().equals("PlayerHoverMessage")) logToConsole("Received: " + received.getClass().getSimpleName());
+    /**
+     * This method is called when the connection to the player is lost.
+     */
+    public void onDisconnect() {
+        if (connection instanceof SocketConnection socketConnection) {
+            logToConsole("Disconnected, object stream retained " + socketConnection.getRetainedHandles() + " objects (peak "
+                    + socketConnection.getPeakRetainedHandles() + ", " + socketConnection.getStreamResets() + " resets), "
+                    + socketConnection.getMergedHovers() + " hover messages merged");
+        }
+        server.getHoverRelay().forget(this);
+        server.removePlayer(this);
+        server.removeFromQueue(this.getId());
+    }
 
-                switch (received.getType()) {
-                    case MessageType.JOIN_QUEUE -> {
+    /**
+     * Handles a single message received from the player.
+     * @param received the received message
+     */
+    public void handleMessage(Message received) {
+        long start = System.nanoTime();
+        try {
+            dispatch(received);
+        } finally {
+            server.getMetrics().recordHandled(received.getType(), System.nanoTime() - start);
+        }
+    }
 
-                        if(game != null) {
-                            sendMessage(new ErrorMessage(ErrorType.ALREADY_IN_GAME));
-                            return;
-                        }
+    private void dispatch(Message received) {
+        BattleShipGame game = server.getGame(this);
 
-                        if(server.getQueue().contains(this)) {
-                            broadcastQueueStateUpdate();
-                            return;
-                        }
+        if(received.getType() != MessageType.PLAYER_HOVER) Log.debug(logSource, () -> "Received: " + received.getClass().getSimpleName());
 
-                        server.addToQueue(this);
+        switch (received.getType()) {
+            case MessageType.REGISTER -> {
+                RegisterMessage registerMessage = (RegisterMessage) received;
 
-                        broadcastQueueStateUpdate();
+                // The client acknowledges the registration and may ask for the binary codec
+                if (roundTripMillis < 0 && registerSentAt != 0) {
+                    roundTripMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - registerSentAt);
+                }
+                if (registerMessage.isBinaryCodec() && connection.supportsBinaryCodec()) {
+                    connection.setBinaryCodec(true);
+                }
+            }
+            case MessageType.JOIN_QUEUE -> {
 
-                        checkQueueForPossibleGame();
-                    }
-                    case MessageType.LEAVE_QUEUE -> {
-                        if(game != null) {
-                            game.removePlayer(this);
-                            sendMessage(new ErrorMessage(ErrorType.ALREADY_IN_GAME));
-                            return;
-                        }
+                if(game != null || isInGame) {
+                    sendMessage(new ErrorMessage(ErrorType.ALREADY_IN_GAME));
+                    return;
+                }
 
-                        if(!server.getQueue().contains(this)) {
-                            broadcastQueueStateUpdate();
-                            return;
-                        }
+                if(server.getQueue().contains(this)) {
+                    sendMessage(new QueueUpdateMessage(server.getQueue().size(), true));
+                    return;
+                }
 
-                        server.removeFromQueue(this.getId());
+                GameOptions preferredOptions = ((JoinQueueMessage) received).getPreferredOptions();
+                if(preferredOptions != null && (preferredOptions.getBoardSize() < 5 || preferredOptions.getBoardSize() > 20)) {
+                    sendMessage(new ErrorMessage(ErrorType.INVALID_GAME_SIZE));
+                    return;
+                }
 
-                        broadcastQueueStateUpdate();
-                    }
-                    case MessageType.CREATE_GAME -> {
-                        CreateGameMessage createGameMessage = (CreateGameMessage) received;
+                // The other players learn the new queue size with the next queue broadcast
+                server.addToQueue(this, preferredOptions);
+            }
+            case MessageType.LEAVE_QUEUE -> {
+                if(game != null) {
+                    game.removePlayer(this);
+                    sendMessage(new ErrorMessage(ErrorType.ALREADY_IN_GAME));
+                    return;
+                }
 
-                        if(createGameMessage.getGameOptions().getBoardSize() < 5 || createGameMessage.getGameOptions().getBoardSize() > 20) {
-                            sendMessage(new ErrorMessage(ErrorType.INVALID_GAME_SIZE));
-                            return;
-                        }
+                if(!server.getQueue().contains(this)) {
+                    sendMessage(new QueueUpdateMessage(server.getQueue().size(), false));
+                    return;
+                }
 
-                        createGame(createGameMessage.getGameOptions());
+                server.removeFromQueue(this.getId());
+            }
+            case MessageType.CREATE_GAME -> {
+                CreateGameMessage createGameMessage = (CreateGameMessage) received;
 
-                        server.getQueue().remove(this);
+                if(createGameMessage.getGameOptions().getBoardSize() < 5 || createGameMessage.getGameOptions().getBoardSize() > 20) {
+                    sendMessage(new ErrorMessage(ErrorType.INVALID_GAME_SIZE));
+                    return;
+                }
 
-                        this.isInGame = true;
-                    }
-                    case MessageType.JOIN_GAME_WITH_CODE -> {
-                        JoinGameWithCodeMessage joinGameWithCodeMessage = (JoinGameWithCodeMessage) received;
+                createGame(createGameMessage.getGameOptions());
 
-                        if(game != null) {
-                            sendMessage(new ErrorMessage(ErrorType.ALREADY_IN_GAME));
-                            return;
-                        }
+                server.getQueue().remove(this.getId());
+            }
+            case MessageType.JOIN_GAME_WITH_CODE -> {
+                JoinGameWithCodeMessage joinGameWithCodeMessage = (JoinGameWithCodeMessage) received;
 
-                        BattleShipGame targetGame = server.getGameFromJoinCode(joinGameWithCodeMessage.getSessionCode());
+                if(game != null || isInGame) {
+                    sendMessage(new ErrorMessage(ErrorType.ALREADY_IN_GAME));
+                    return;
+                }
 
-                        if (targetGame == null) {
-                            sendMessage(new ErrorMessage(ErrorType.INVALID_SESSION_CODE));
-                            return;
-                        }
+                BattleShipGame targetGame = server.getGameFromJoinCode(joinGameWithCodeMessage.getSessionCode());
 
-                        if(!targetGame.getGameState().getStatus().equals(GameState.GameStatus.LOBBY_WAITING)) {
-                            sendMessage(new ErrorMessage(ErrorType.GAME_ALREADY_STARTED));
-                            return;
-                        }
+                if (targetGame == null) {
+                    sendMessage(new ErrorMessage(ErrorType.INVALID_SESSION_CODE));
+                    return;
+                }
 
-                        server.getQueue().remove(this);
+                if(!targetGame.getGameState().getStatus().equals(GameState.GameStatus.LOBBY_WAITING)) {
+                    sendMessage(new ErrorMessage(ErrorType.GAME_ALREADY_STARTED));
+                    return;
+                }
 
-                        targetGame.addPlayer(this);
+                server.getQueue().remove(this.getId());
 
-                        this.isInGame = true;
-                    }
-                    case MessageType.LEAVE_GAME -> {
-                        LeaveGameMessage leaveGameMessage = (LeaveGameMessage) received;
+                targetGame.addPlayer(this);
+            }
+            case MessageType.LEAVE_GAME -> {
+                LeaveGameMessage leaveGameMessage = (LeaveGameMessage) received;
 
-                        if(game == null) {
-                            sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
-                            return;
-                        }
+                if(game == null) {
+                    sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
+                    return;
+                }
 
-                        game.removePlayer(this);
+                game.removePlayer(this);
 
-                        this.isInGame = false;
-                    }
-                    case MessageType.PLAYER_UPDATE_SHIP_PLACEMENT -> {
-                        PlayerUpdateShipPlacement playerUpdateShipPlacement = (PlayerUpdateShipPlacement) received;
+                this.isInGame = false;
+            }
+            case MessageType.PLAYER_UPDATE_SHIP_PLACEMENT -> {
+                PlayerUpdateShipPlacement playerUpdateShipPlacement = (PlayerUpdateShipPlacement) received;
 
-                        if(game == null) {
-                            sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
-                            return;
-                        }
+                if(game == null) {
+                    sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
+                    return;
+                }
 
-                        game.onPlayerPlaceShips(this, playerUpdateShipPlacement.getShips());
-                    }
-                    case MessageType.PLAYER_READY -> {
-                        PlayerReadyMessage playerReadyMessage = (PlayerReadyMessage) received;
-
-                        if(game == null) {
-                            sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
-                            return;
-                        }
-
-                        game.onPlayerReadyStateChange(this, playerReadyMessage.ready);
-                    }
-                    case MessageType.PLAYER_HOVER -> {
-                        PlayerHoverMessage playerHoverMessage = (PlayerHoverMessage) received;
-
-                        if(game == null) {
-                            sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
-                            return;
-                        }
-
-                        if(!game.getGameState().getStatus().equals(GameState.GameStatus.IN_GAME)) return;
-
-                        if(game.getPlayerA().getId().equals(this.getId())) {
-                            game.getPlayerB().sendMessage(new PlayerHoverMessage(playerHoverMessage));
-                        } else if(game.getPlayerB().getId().equals(this.getId())) {
-                            game.getPlayerA().sendMessage(new PlayerHoverMessage(playerHoverMessage));
-                        }
-                    }
-                    case MessageType.PLAYER_MOVE -> {
-                        PlayerMoveMessage playerMoveMessage = (PlayerMoveMessage) received;
-
-                        if(game == null) {
-                            sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
-                            return;
-                        }
+                game.onPlayerPlaceShips(this, playerUpdateShipPlacement.getShips());
+            }
+            case MessageType.PLAYER_READY -> {
+                PlayerReadyMessage playerReadyMessage = (PlayerReadyMessage) received;
 
-                        game.onPlayerAttemptMove(this, playerMoveMessage.getMove());
-                    }
+                if(game == null) {
+                    sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
+                    return;
                 }
+
+                game.onPlayerReadyStateChange(this, playerReadyMessage.ready);
             }
-        } catch (IOException | ClassNotFoundException e) {
-            server.removePlayer(this);
-            server.removeFromQueue(this.getId());
-        }
-    }
+            case MessageType.PLAYER_HOVER -> {
+                PlayerHoverMessage playerHoverMessage = (PlayerHoverMessage) received;
 
-    /**
-     * Broadcasts the current queue state to all players.
-     */
-    private void broadcastQueueStateUpdate() {
-        for (ServerPlayer player : server.getPlayers()) {
-            boolean isInQueue = server.getQueue().contains(player);
-            player.sendMessage(new QueueUpdateMessage(server.getQueue().size(), isInQueue));
-        }
-    }
+                if(game == null) {
+                    sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
+                    return;
+                }
 
-    /**
-     * Checks the queue for possible game creation.
-     */
-    private void checkQueueForPossibleGame() {
-        // Check if there are enough players in queue to start a game
-        if(server.getQueue().size() >= 2) {
-            ServerPlayer playerA = server.getQueue().get(0);
-            ServerPlayer playerB = server.getQueue().get(1);
+                if(!game.getGameState().getStatus().equals(GameState.GameStatus.IN_GAME)) return;
+
+                // Hovers are coalesced and relayed to the opponent at a limited rate
+                if(game.getPlayerA().getId().equals(this.getId())) {
+                    server.getHoverRelay().submit(this, game.getPlayerB(), playerHoverMessage);
+                } else if(game.getPlayerB().getId().equals(this.getId())) {
+                    server.getHoverRelay().submit(this, game.getPlayerA(), playerHoverMessage);
+                }
+            }
+            case MessageType.GAME_STATE_SYNC_REQUEST -> {
+                if(game == null) {
+                    sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
+                    return;
+                }
 
-            server.getQueue().remove(playerA);
-            server.getQueue().remove(playerB);
+                game.requestSync(this);
+            }
+            case MessageType.PLAYER_MOVE -> {
+                PlayerMoveMessage playerMoveMessage = (PlayerMoveMessage) received;
+
+                if(game == null) {
+                    sendMessage(new ErrorMessage(ErrorType.NO_GAME_IN_PROGRESS));
+                    return;
+                }
 
-            createGame(playerA, playerB);
+                game.onPlayerAttemptMove(this, playerMoveMessage.getMove());
+            }
         }
     }
 
@@ -236,24 +279,18 @@ public class ServerPlayer implements Runnable {
      */
     private void createGame(GameOptions gameOptions) {
         BattleShipGame game = new BattleShipGame(this.server, gameOptions);
+        // The join runs later in the game mailbox, the next message of this player must already find the game
+        server.onPlayerJoinedGame(this, game);
         game.addPlayer(this);
         server.registerGame(game);
     }
 
     /**
-     * Create a new game with the given size for the two given players.
-     * @param playerA playerA
-     * @param playerB playerB
+     * Closes the connection if the client stopped reading the messages sent to it.
+     * @return true if the connection was closed
      */
-    private void createGame(ServerPlayer playerA, ServerPlayer playerB) {
-        BattleShipGame game = new BattleShipGame(this.server);
-        System.out.println("[Server] Game created with player A: " + playerA.getUsername() +
-                " and player B: " + playerB.getUsername());
-
-        game.addPlayer(playerA);
-        game.addPlayer(playerB);
-
-        server.registerGame(game);
+    public boolean closeIfLagging() {
+        return connection.closeIfLagging();
     }
 
     /**
@@ -262,12 +299,28 @@ public class ServerPlayer implements Runnable {
      */
     public void sendMessage(Message message) {
         try {
-            if(!message.getClass().getSimpleName().equals("PlayerHoverMessage")) logToConsole("Sending " + message.toString());
-            out.writeObject(message);
-            out.flush();
+            // Formatting a message formats the whole game state, so it is only done when debugging
+            if(message.getType() != MessageType.PLAYER_HOVER) Log.debug(logSource, () -> "Sending " + message);
+            long start = System.nanoTime();
+            connection.sendMessage(message);
+            server.getMetrics().recordSent(message.getType(), System.nanoTime() - start);
         } catch (IOException e) {
-            logToConsole("Failed to send message to player " + username + " (" + message.getType().toString() + ")");
-            e.printStackTrace();
+            Log.warn(logSource, "Failed to send message to player " + username + " (" + message.getType() + ")", e);
+        }
+    }
+
+    /**
+     * Sends a message that is shared with other players, reusing its encoded bytes.
+     * @param message the encoded message to send
+     */
+    public void sendMessage(EncodedMessage message) {
+        try {
+            if(message.getMessage().getType() != MessageType.PLAYER_HOVER) Log.debug(logSource, () -> "Sending " + message.getMessage());
+            long start = System.nanoTime();
+            connection.sendMessage(message);
+            server.getMetrics().recordSent(message.getMessage().getType(), System.nanoTime() - start);
+        } catch (IOException e) {
+            Log.warn(logSource, "Failed to send message to player " + username + " (" + message.getMessage().getType() + ")", e);
         }
     }
 
@@ -277,9 +330,9 @@ public class ServerPlayer implements Runnable {
      */
     private void logToConsole(String message) {
         if(message.contains("Error")) {
-            System.err.println("[Player " + username + "] " + message);
+            Log.warn(logSource, message);
         } else {
-            System.out.println("[Player " + username + "] " + message);
+            Log.info(logSource, message);
         }
     }
 
@@ -291,6 +344,22 @@ public class ServerPlayer implements Runnable {
         return isInGame;
     }
 
+    /**
+     * Returns the time between sending the registration and receiving its acknowledgement.
+     * @return the round-trip time in milliseconds or -1 if the client did not acknowledge yet
+     */
+    public long getRoundTripMillis() {
+        return roundTripMillis;
+    }
+
+    /**
+     * Returns the number of outgoing messages that are queued for this player but not written yet.
+     * @return the queued messages
+     */
+    public int getQueuedMessages() {
+        return connection.getQueuedMessages();
+    }
+
     public UUID getId() {
         return id;
     }
@@ -0,0 +1,316 @@
+package server.metrics;
+
+import protocol.GameState;
+import protocol.messages.MessageType;
+import server.BattleShipGame;
+import server.Server;
+import server.ServerPlayer;
+import utils.Histogram;
+import utils.Log;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.beans.ConstructorProperties;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of a running server: how long received messages take to dispatch and outgoing messages to queue,
+ * how large outgoing messages are, the bytes on the wire, the current players, queues, games and threads,
+ * and how many games the matchmaker created and how long their players waited.
+ * Recording is lock-free and may be called from any thread. The current values are read from the server
+ * when the metrics are queried, over JMX or by the periodic dump.
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    public static final String OBJECT_NAME = "battleship:type=ServerMetrics";
+
+    /**
+     * Percentiles of a histogram at the time it was queried.
+     */
+    public static class Summary {
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long max;
+
+        @ConstructorProperties({"count", "mean", "p50", "p90", "p99", "max"})
+        public Summary(long count, double mean, long p50, long p90, long p99, long max) {
+            this.count = count;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        /**
+         * Summarizes a histogram, dividing every value by the given unit.
+         */
+        static Summary of(Histogram histogram, long unit) {
+            return new Summary(histogram.getCount(), histogram.getMean() / unit, histogram.getPercentile(50) / unit,
+                    histogram.getPercentile(90) / unit, histogram.getPercentile(99) / unit, histogram.getMax() / unit);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count +
+                    ", mean=" + String.format("%.1f", mean) +
+                    ", p50=" + p50 +
+                    ", p90=" + p90 +
+                    ", p99=" + p99 +
+                    ", max=" + max;
+        }
+    }
+
+    private volatile Server server; // set when the metrics are started
+
+    // One histogram per message type, created up front so recording never allocates
+    private final Map<MessageType, Histogram> handleNanos = new EnumMap<>(MessageType.class);
+    private final Map<MessageType, Histogram> sendNanos = new EnumMap<>(MessageType.class);
+    private final Map<MessageType, Histogram> messageBytes = new EnumMap<>(MessageType.class);
+
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Creates the metrics of a server. Values can be recorded right away; the current players, queues and games
+     * are only reported once the metrics are started.
+     */
+    public ServerMetrics() {
+        for (MessageType type : MessageType.values()) {
+            handleNanos.put(type, new Histogram());
+            sendNanos.put(type, new Histogram());
+            messageBytes.put(type, new Histogram());
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. A failure is logged, the server runs without JMX then.
+     */
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            Log.warn("Metrics", "Could not register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Registers the metrics with JMX and logs them periodically. Does nothing if the metrics were started before,
+     * e.g. when a stopped server is started again.
+     * @param server the server whose players, queue and games are reported
+     * @param scheduler the scheduler that runs the dump
+     * @param intervalSeconds the time between two dumps, 0 to never dump
+     */
+    public void start(Server server, ScheduledExecutorService scheduler, int intervalSeconds) {
+        if (this.server != null) return;
+        this.server = server;
+        register();
+
+        if (intervalSeconds <= 0) return;
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                Log.info("Metrics", "\n" + dump());
+            } catch (RuntimeException e) {
+                // An exception would cancel the periodic task
+                Log.error("Metrics", "Dump failed", e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Records how long dispatching a received message took.
+     * @param type the type of the message
+     * @param nanos the time in nanoseconds
+     */
+    public void recordHandled(MessageType type, long nanos) {
+        handleNanos.get(type).record(nanos);
+    }
+
+    /**
+     * Records how long encoding and queueing an outgoing message took.
+     * @param type the type of the message
+     * @param nanos the time in nanoseconds
+     */
+    public void recordSent(MessageType type, long nanos) {
+        sendNanos.get(type).record(nanos);
+    }
+
+    /**
+     * Records the encoded size of an outgoing message.
+     * @param type the type of the message
+     * @param bytes the size in bytes
+     */
+    public void recordMessageBytes(MessageType type, int bytes) {
+        messageBytes.get(type).record(bytes);
+    }
+
+    public void recordBytesIn(long bytes) {
+        bytesIn.add(bytes);
+    }
+
+    public void recordBytesOut(long bytes) {
+        bytesOut.add(bytes);
+    }
+
+    @Override
+    public int getConnectedPlayers() {
+        return server.getPlayers().size();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return server.getQueue().size();
+    }
+
+    @Override
+    public long getSendQueueDepth() {
+        long depth = 0;
+        for (ServerPlayer player : server.getPlayers()) {
+            depth += player.getQueuedMessages();
+        }
+        return depth;
+    }
+
+    @Override
+    public Map<String, Integer> getGamesByStatus() {
+        Map<GameState.GameStatus, Integer> counts = new EnumMap<>(GameState.GameStatus.class);
+        for (GameState.GameStatus status : GameState.GameStatus.values()) counts.put(status, 0);
+        for (BattleShipGame game : server.getGames()) {
+            counts.merge(game.getGameState().getStatus(), 1, Integer::sum);
+        }
+
+        Map<String, Integer> byName = new LinkedHashMap<>();
+        counts.forEach((status, count) -> byName.put(status.name(), count));
+        return byName;
+    }
+
+    @Override
+    public long getMatchmakingTicks() {
+        return server.getMatchmaker().getTicks();
+    }
+
+    @Override
+    public long getMatchmakingGamesCreated() {
+        return server.getMatchmaker().getGamesCreated();
+    }
+
+    @Override
+    public Summary getMatchmakingWaitMillis() {
+        return Summary.of(server.getMatchmaker().getWaitMillis(), 1);
+    }
+
+    @Override
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    @Override
+    public Map<String, Summary> getHandleMicros() {
+        return summarize(handleNanos, 1000);
+    }
+
+    @Override
+    public Map<String, Summary> getSendMicros() {
+        return summarize(sendNanos, 1000);
+    }
+
+    @Override
+    public Map<String, Summary> getMessageBytes() {
+        return summarize(messageBytes, 1);
+    }
+
+    /**
+     * Platform threads only; virtual threads are not counted by the JVM.
+     */
+    @Override
+    public int getThreadCount() {
+        return threads.getThreadCount();
+    }
+
+    @Override
+    public int getPeakThreadCount() {
+        return threads.getPeakThreadCount();
+    }
+
+    @Override
+    public int getDaemonThreadCount() {
+        return threads.getDaemonThreadCount();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append("players=").append(getConnectedPlayers())
+                .append(" queue=").append(getQueueSize())
+                .append(" sendQueueDepth=").append(getSendQueueDepth())
+                .append(" bytesIn=").append(getBytesIn())
+                .append(" bytesOut=").append(getBytesOut()).append('\n');
+        out.append("threads=").append(getThreadCount())
+                .append(" peak=").append(getPeakThreadCount())
+                .append(" daemon=").append(getDaemonThreadCount()).append('\n');
+        out.append("games ").append(getGamesByStatus()).append('\n');
+        out.append("matchmaking ticks=").append(getMatchmakingTicks())
+                .append(" gamesCreated=").append(getMatchmakingGamesCreated())
+                .append(" wait ms: ").append(getMatchmakingWaitMillis()).append('\n');
+        appendSummaries(out, "handle us", getHandleMicros());
+        appendSummaries(out, "send us", getSendMicros());
+        appendSummaries(out, "size bytes", getMessageBytes());
+        return out.toString();
+    }
+
+    /**
+     * Summarizes the histograms of all message types that were recorded at least once.
+     */
+    private static Map<String, Summary> summarize(Map<MessageType, Histogram> histograms, long unit) {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        histograms.forEach((type, histogram) -> {
+            if (histogram.getCount() > 0) summaries.put(type.name(), Summary.of(histogram, unit));
+        });
+        return summaries;
+    }
+
+    private static void appendSummaries(StringBuilder out, String name, Map<String, Summary> summaries) {
+        summaries.forEach((type, summary) -> out.append(name).append(' ').append(type).append(": ").append(summary).append('\n'));
+    }
+}
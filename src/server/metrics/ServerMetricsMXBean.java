@@ -0,0 +1,70 @@
+package server.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link ServerMetrics}, registered as {@code battleship:type=ServerMetrics}.
+ * Maps are keyed by the name of the message type or game status.
+ */
+public interface ServerMetricsMXBean {
+
+    int getConnectedPlayers();
+
+    int getQueueSize();
+
+    /**
+     * Returns the number of outgoing messages queued on all connections that were not written yet.
+     * @return the queued messages
+     */
+    long getSendQueueDepth();
+
+    Map<String, Integer> getGamesByStatus();
+
+    long getMatchmakingTicks();
+
+    /**
+     * Returns the number of games the matchmaker created from the queue.
+     * @return the created games
+     */
+    long getMatchmakingGamesCreated();
+
+    /**
+     * Returns how long matched players waited in the queue.
+     * @return the wait times in milliseconds
+     */
+    ServerMetrics.Summary getMatchmakingWaitMillis();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    /**
+     * Returns how long the server took to dispatch a received message, by message type.
+     * @return the dispatch times in microseconds
+     */
+    Map<String, ServerMetrics.Summary> getHandleMicros();
+
+    /**
+     * Returns how long the server took to encode and queue an outgoing message, by message type.
+     * @return the send times in microseconds
+     */
+    Map<String, ServerMetrics.Summary> getSendMicros();
+
+    /**
+     * Returns the encoded size of outgoing messages, by message type.
+     * @return the sizes in bytes
+     */
+    Map<String, ServerMetrics.Summary> getMessageBytes();
+
+    int getThreadCount();
+
+    int getPeakThreadCount();
+
+    int getDaemonThreadCount();
+
+    /**
+     * Returns all metrics as text, one line per metric.
+     * @return the metrics
+     */
+    String dump();
+}
@@ -0,0 +1,70 @@
+package server.transport;
+
+import protocol.messages.Message;
+import protocol.transport.EncodedMessage;
+
+import java.io.IOException;
+
+/**
+ * The transport a ServerPlayer uses to talk to its client.
+ */
+public interface Connection {
+
+    /**
+     * Sends a message to the client.
+     * @param message the message to send
+     * @throws IOException if the message could not be written
+     */
+    void sendMessage(Message message) throws IOException;
+
+    /**
+     * Sends a message that was encoded once for several recipients.
+     * @param message the encoded message to send
+     * @throws IOException if the message could not be written
+     */
+    void sendMessage(EncodedMessage message) throws IOException;
+
+    /**
+     * Closes the connection to the client. As with a lost connection, the player is notified through
+     * {@link server.ServerPlayer#onDisconnect()}.
+     */
+    void close();
+
+    /**
+     * Closes the connection if its oldest unsent message waited longer than the lag budget. A send notices a client
+     * that does not keep up as well, but only if something new is sent to it, so this is also checked periodically.
+     * @return true if the connection was closed
+     */
+    default boolean closeIfLagging() {
+        return false;
+    }
+
+    /**
+     * Returns whether this transport can carry the binary codec.
+     * @return true if the binary codec can be negotiated
+     */
+    default boolean supportsBinaryCodec() {
+        return false;
+    }
+
+    /**
+     * Switches outgoing messages to the binary codec once the client requested it.
+     * @param enabled true to send binary frames
+     */
+    default void setBinaryCodec(boolean enabled) {
+    }
+
+    /**
+     * Returns the number of outgoing messages that are queued but not written yet.
+     * @return the queued messages
+     */
+    default int getQueuedMessages() {
+        return 0;
+    }
+
+    /**
+     * Returns the IP address of the client.
+     * @return the IP address
+     */
+    String getIp();
+}
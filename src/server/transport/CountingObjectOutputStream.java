@@ -0,0 +1,107 @@
+package server.transport;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * ObjectOutputStream that keeps track of how many objects its handle table retains and how many bytes it wrote.
+ * Every object written for the first time since the last reset gets a handle and stays reachable from the stream
+ * until {@link #reset()} is called, so the handle count is a direct measure of the memory held by the connection.
+ */
+public final class CountingObjectOutputStream extends ObjectOutputStream {
+
+    private final ByteCounter counter;
+
+    private int retainedHandles = 0;
+    private int peakRetainedHandles = 0;
+    private long bytesAtReset = 0;
+    private long resets = 0;
+
+    /**
+     * Creates a new stream and writes the stream header.
+     * @param out the underlying stream
+     * @throws IOException if the header cannot be written
+     */
+    public CountingObjectOutputStream(OutputStream out) throws IOException {
+        this(new ByteCounter(out));
+    }
+
+    private CountingObjectOutputStream(ByteCounter counter) throws IOException {
+        super(counter);
+        this.counter = counter;
+        enableReplaceObject(true);
+    }
+
+    /**
+     * Called once for every object that is not yet in the handle table; objects are never replaced.
+     */
+    @Override
+    protected Object replaceObject(Object obj) {
+        retainedHandles++;
+        if (retainedHandles > peakRetainedHandles) peakRetainedHandles = retainedHandles;
+        return obj;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        retainedHandles = 0;
+        bytesAtReset = counter.count;
+        resets++;
+    }
+
+    /**
+     * Returns the number of objects retained by the handle table since the last reset.
+     * @return the retained objects, not counting class descriptors
+     */
+    public int getRetainedHandles() {
+        return retainedHandles;
+    }
+
+    public int getPeakRetainedHandles() {
+        return peakRetainedHandles;
+    }
+
+    /**
+     * Returns the number of bytes that reached the underlying stream since the last reset.
+     * Bytes still held in the block buffer are not included until the stream is flushed.
+     * @return the bytes written since the last reset
+     */
+    public long getBytesSinceReset() {
+        return counter.count - bytesAtReset;
+    }
+
+    public long getBytesWritten() {
+        return counter.count;
+    }
+
+    public long getResets() {
+        return resets;
+    }
+
+    /**
+     * Counts the bytes passed to the underlying stream.
+     */
+    private static class ByteCounter extends FilterOutputStream {
+
+        private long count = 0;
+
+        ByteCounter(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package server.transport;
+
+import utils.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A single selector thread serving many non-blocking connections.
+ */
+public class EventLoop implements Runnable {
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private volatile boolean running = true;
+
+    /**
+     * Creates a new event loop with its own selector.
+     * @throws IOException if the selector cannot be opened
+     */
+    public EventLoop() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                Log.error("Server", "Selector failed", e);
+                break;
+            }
+
+            Runnable task;
+            while ((task = tasks.poll()) != null) task.run();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                process(key);
+            }
+        }
+        closeAll();
+    }
+
+    /**
+     * Handles the ready operations of a single key.
+     * @param key the selected key
+     */
+    private void process(SelectionKey key) {
+        NioConnection connection = (NioConnection) key.attachment();
+        try {
+            if (key.isValid() && key.isReadable()) connection.onReadable(readBuffer);
+            if (key.isValid() && key.isWritable()) connection.onWritable();
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof RuntimeException) Log.error("Server", "Connection failed", e);
+            connection.closeAndNotify();
+        }
+    }
+
+    /**
+     * Hands a freshly accepted connection over to this loop.
+     * @param connection the connection to register
+     */
+    void register(NioConnection connection) {
+        execute(() -> {
+            try {
+                SelectionKey key = connection.getChannel().register(selector, SelectionKey.OP_READ, connection);
+                connection.onRegistered(key);
+            } catch (ClosedChannelException e) {
+                connection.closeAndNotify();
+            }
+        });
+    }
+
+    /**
+     * Asks the loop to enable write interest for the given connection.
+     * @param connection the connection with queued frames
+     */
+    void requestWrite(NioConnection connection) {
+        execute(connection::enableWriteInterest);
+    }
+
+    /**
+     * Runs a task on the event-loop thread.
+     * @param task the task to run
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop; queued frames are flushed on a best-effort basis before the channels are closed.
+     */
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void closeAll() {
+        for (SelectionKey key : selector.keys()) {
+            NioConnection connection = (NioConnection) key.attachment();
+            try {
+                if (connection.hasPendingWrites()) connection.onWritable();
+            } catch (IOException | RuntimeException ignored) {
+            }
+            connection.closeAndNotify();
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package server.transport;
+
+import protocol.messages.Message;
+import protocol.messages.MessageType;
+import protocol.transport.EncodedMessage;
+import protocol.transport.Frames;
+import server.ServerPlayer;
+import server.metrics.ServerMetrics;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Non-blocking connection driven by an {@link EventLoop}.
+ * Incoming bytes are split into frames and dispatched to the owning ServerPlayer on the event-loop thread;
+ * outgoing frames are put into a bounded queue and written once the channel becomes writable.
+ * An idle connection holds no buffers at all.
+ */
+public class NioConnection implements Connection {
+
+    private final SocketChannel channel;
+    private final EventLoop loop;
+    private final String ip;
+    private final ServerMetrics metrics;
+    private ServerPlayer player;
+    private SelectionKey key;
+
+    private static final int MAX_GATHERED_FRAMES = 16;
+
+    private ByteBuffer pending; // partial frame in write mode, null if there is none
+
+    private final OutboundQueue<ByteBuffer> writeQueue;
+    private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>(); // frames taken from the queue, loop thread only
+    private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHERED_FRAMES];
+    private final AtomicBoolean writeRequested = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private volatile boolean binaryCodec = false;
+
+    /**
+     * Creates a new connection for an accepted channel.
+     * @param channel the accepted channel, already in non-blocking mode
+     * @param loop the event loop that will serve this connection
+     * @param sendQueueCapacity the maximum number of queued frames
+     * @param lagBudgetMillis the maximum time a queued frame may wait before the client is disconnected, 0 for no limit
+     * @param metrics the metrics that count the bytes and message sizes
+     */
+    NioConnection(SocketChannel channel, EventLoop loop, int sendQueueCapacity, long lagBudgetMillis, ServerMetrics metrics) {
+        this.channel = channel;
+        this.loop = loop;
+        this.metrics = metrics;
+        this.writeQueue = new OutboundQueue<>(sendQueueCapacity, lagBudgetMillis);
+        this.ip = ((InetSocketAddress) channel.socket().getRemoteSocketAddress()).getAddress().getHostAddress();
+    }
+
+    /**
+     * Attaches the player that receives the decoded messages of this connection.
+     * @param player the player
+     */
+    void attach(ServerPlayer player) {
+        this.player = player;
+    }
+
+    /**
+     * Called by the event loop once the channel is registered with its selector.
+     * @param key the selection key of the channel
+     */
+    void onRegistered(SelectionKey key) {
+        this.key = key;
+        player.onConnect();
+    }
+
+    /**
+     * Reads available bytes and dispatches every complete frame.
+     * @param scratch the shared read buffer of the event loop
+     * @throws IOException if the channel is closed or a frame is invalid
+     */
+    void onReadable(ByteBuffer scratch) throws IOException {
+        scratch.clear();
+        int read = channel.read(scratch);
+        if (read < 0) throw new EOFException();
+        if (read == 0) return;
+        metrics.recordBytesIn(read);
+        scratch.flip();
+
+        ByteBuffer in;
+        if (pending == null) {
+            in = scratch;
+        } else {
+            if (pending.remaining() < scratch.remaining()) {
+                ByteBuffer grown = ByteBuffer.allocate(pending.position() + scratch.remaining());
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            pending.put(scratch);
+            pending.flip();
+            in = pending;
+        }
+
+        while (in.remaining() >= Frames.HEADER_SIZE) {
+            int length = in.getInt(in.position());
+            Frames.checkLength(length);
+            if (in.remaining() < Frames.HEADER_SIZE + length) break;
+
+            byte[] payload = new byte[length];
+            in.position(in.position() + Frames.HEADER_SIZE);
+            in.get(payload);
+
+            player.handleMessage(Frames.decode(payload, 0, length));
+        }
+
+        if (!in.hasRemaining()) {
+            pending = null;
+        } else if (in == pending) {
+            pending.compact();
+        } else {
+            pending = ByteBuffer.allocate(Math.max(in.remaining(), 256));
+            pending.put(in);
+        }
+    }
+
+    /**
+     * Writes as many queued frames as the socket accepts, several frames per system call.
+     * @throws IOException if the channel is closed
+     */
+    void onWritable() throws IOException {
+        while (true) {
+            if (writing.isEmpty()) writeQueue.drainTo(writing, MAX_GATHERED_FRAMES);
+            if (writing.isEmpty()) break;
+
+            int count = 0;
+            for (ByteBuffer frame : writing) {
+                if (count == MAX_GATHERED_FRAMES) break;
+                gathered[count++] = frame;
+            }
+            metrics.recordBytesOut(channel.write(gathered, 0, count));
+            Arrays.fill(gathered, 0, count, null);
+
+            while (!writing.isEmpty() && !writing.peekFirst().hasRemaining()) writing.pollFirst();
+            if (!writing.isEmpty()) return; // socket buffer full, wait for the next writable event
+        }
+
+        key.interestOps(SelectionKey.OP_READ);
+        writeRequested.set(false);
+
+        // A frame may have been queued after the queue was found empty
+        if (!writeQueue.isEmpty()) requestWrite();
+    }
+
+    @Override
+    public void sendMessage(Message message) throws IOException {
+        if (closed.get()) throw new IOException("Connection closed");
+
+        byte[] frame = Frames.encode(message, binaryCodec);
+        metrics.recordMessageBytes(message.getType(), frame.length);
+        enqueue(ByteBuffer.wrap(frame), message.getType() == MessageType.PLAYER_HOVER);
+    }
+
+    @Override
+    public void sendMessage(EncodedMessage message) throws IOException {
+        if (closed.get()) throw new IOException("Connection closed");
+
+        // Every recipient wraps the same frame; the buffer positions are per connection
+        byte[] frame = message.getFrame(binaryCodec);
+        metrics.recordMessageBytes(message.getMessage().getType(), frame.length);
+        enqueue(ByteBuffer.wrap(frame), message.getMessage().getType() == MessageType.PLAYER_HOVER);
+    }
+
+    private void enqueue(ByteBuffer frame, boolean mergeable) throws IOException {
+        OutboundQueue.Result result = writeQueue.offer(frame, mergeable);
+        if (result == OutboundQueue.Result.CLOSED) throw new IOException("Connection closed");
+        if (result == OutboundQueue.Result.REJECTED) {
+            // The client does not keep up, drop it instead of buffering without limit
+            loop.execute(this::closeAndNotify);
+            throw new IOException("Send queue of " + ip + " exceeded its capacity or lag budget");
+        }
+        requestWrite();
+    }
+
+    @Override
+    public boolean supportsBinaryCodec() {
+        return true;
+    }
+
+    @Override
+    public void setBinaryCodec(boolean enabled) {
+        this.binaryCodec = enabled;
+    }
+
+    /**
+     * Asks the event loop to watch the channel for writability.
+     */
+    private void requestWrite() {
+        if (!writeRequested.compareAndSet(false, true)) return;
+        loop.requestWrite(this);
+    }
+
+    /**
+     * Enables write interest; must be called on the event-loop thread.
+     */
+    void enableWriteInterest() {
+        if (key != null && key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Closes the connection and notifies the player exactly once.
+     */
+    void closeAndNotify() {
+        if (!closed.compareAndSet(false, true)) return;
+        writeQueue.close();
+        closeChannel();
+        player.onDisconnect();
+    }
+
+    @Override
+    public boolean closeIfLagging() {
+        if (closed.get() || !writeQueue.isOverLagBudget()) return false;
+        loop.execute(this::closeAndNotify);
+        return true;
+    }
+
+    /**
+     * Closes the connection on the event-loop thread; like a lost connection, this notifies the player.
+     */
+    @Override
+    public void close() {
+        loop.execute(this::closeAndNotify);
+    }
+
+    private void closeChannel() {
+        if (key != null) key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    boolean hasPendingWrites() {
+        return !writing.isEmpty() || !writeQueue.isEmpty();
+    }
+
+    /**
+     * Frames the event loop already took from the queue but did not finish writing are not counted.
+     */
+    @Override
+    public int getQueuedMessages() {
+        return writeQueue.size();
+    }
+
+    /**
+     * Returns the number of hover messages that were replaced by a newer one before they were written.
+     * @return the number of merged hover messages
+     */
+    public long getMergedHovers() {
+        return writeQueue.getMerged();
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public String getIp() {
+        return ip;
+    }
+}
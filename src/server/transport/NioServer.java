@@ -0,0 +1,81 @@
+package server.transport;
+
+import server.Server;
+import server.ServerPlayer;
+import utils.Log;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Non-blocking transport: a single acceptor hands new channels round-robin to a small pool of event loops,
+ * so the number of threads does not grow with the number of connected players.
+ */
+public class NioServer implements Runnable {
+
+    private final Server server;
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private int nextLoop = 0;
+
+    /**
+     * Opens the listening channel and starts the event loops.
+     * @param server the server that owns the players
+     * @param port the port to listen on
+     * @param eventLoops the number of event-loop threads
+     * @throws IOException if the port cannot be bound
+     */
+    public NioServer(Server server, int port, int eventLoops) throws IOException {
+        this.server = server;
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port), 1024);
+
+        this.loops = new EventLoop[eventLoops];
+        for (int i = 0; i < eventLoops; i++) {
+            loops[i] = new EventLoop();
+            Thread thread = new Thread(loops[i], "nio-loop-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Accepts connections until the server channel is closed.
+     */
+    @Override
+    public void run() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+
+                EventLoop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+
+                NioConnection connection = new NioConnection(channel, loop,
+                        server.getOptions().getSendQueueCapacity(), server.getOptions().getLagBudgetMillis(), server.getMetrics());
+                ServerPlayer player = new ServerPlayer(connection, server);
+                connection.attach(player);
+
+                server.addPlayer(player);
+                loop.register(connection);
+            } catch (IOException e) {
+                if (serverChannel.isOpen()) Log.error("Server", "Accepting a connection failed", e);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and shuts down all event loops.
+     */
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+        }
+        for (EventLoop loop : loops) loop.shutdown();
+    }
+}
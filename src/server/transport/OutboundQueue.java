@@ -0,0 +1,234 @@
+package server.transport;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue of outgoing items of one connection, filled by any thread and drained by a single writer.
+ * An item may be marked as mergeable: if the previous mergeable item is still queued, the new one supersedes it
+ * instead of growing the queue, e.g. for hover positions where only the latest one matters. It never overtakes
+ * an item queued after the one it supersedes.
+ * Offers are rejected once the queue is full or its oldest item has waited longer than the lag budget,
+ * so a client that does not keep up can be disconnected instead of buffering without limit. A client that
+ * stopped reading may not be offered anything new, so the owner also checks {@link #isOverLagBudget()} periodically.
+ * @param <T> the type of the queued items
+ */
+public class OutboundQueue<T> {
+
+    /**
+     * The outcome of an offer.
+     */
+    public enum Result {
+        QUEUED,
+        MERGED,
+        REJECTED,
+        CLOSED
+    }
+
+    private static class Entry<T> {
+        private T item;
+        private final long enqueuedAt;
+
+        Entry(T item, long enqueuedAt) {
+            this.item = item;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private final int capacity;
+    private final long lagBudgetNanos;
+
+    private final ArrayDeque<Entry<T>> entries = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private Entry<T> mergeableEntry; // the last queued mergeable entry, null once it was taken
+    // The writer may still be writing the items it took last; the oldest of them counts against the lag budget
+    // until the writer comes back for more
+    private boolean inFlight = false;
+    private long inFlightSince;
+    private boolean closed = false;
+    private long merged = 0;
+
+    /**
+     * Creates a new queue.
+     * @param capacity the maximum number of queued items
+     * @param lagBudgetMillis the maximum time the oldest item may wait, 0 for no limit
+     */
+    public OutboundQueue(int capacity, long lagBudgetMillis) {
+        this.capacity = capacity;
+        this.lagBudgetNanos = TimeUnit.MILLISECONDS.toNanos(lagBudgetMillis);
+    }
+
+    /**
+     * Adds an item to the end of the queue or merges it into the queued mergeable item.
+     * A queued mergeable item is replaced in place only if it is the last item; otherwise it is dropped and the new
+     * item is added to the end, so it is not sent ahead of the items queued in between.
+     * @param item the item to send
+     * @param mergeable true if the item supersedes a queued mergeable item
+     * @return whether the item was queued, merged, rejected for exceeding the limits or the queue was closed
+     */
+    public Result offer(T item, boolean mergeable) {
+        lock.lock();
+        try {
+            if (closed) return Result.CLOSED;
+
+            Result queued = Result.QUEUED;
+            if (mergeable && mergeableEntry != null) {
+                merged++;
+                if (mergeableEntry == entries.peekLast()) {
+                    mergeableEntry.item = item;
+                    return Result.MERGED;
+                }
+                // The superseded item is usually close to the end
+                entries.removeLastOccurrence(mergeableEntry);
+                mergeableEntry = null;
+                queued = Result.MERGED;
+            }
+
+            long now = System.nanoTime();
+            if (entries.size() >= capacity || isOverLagBudget(now)) return Result.REJECTED;
+
+            Entry<T> entry = new Entry<>(item, now);
+            entries.addLast(entry);
+            if (mergeable) mergeableEntry = entry;
+            notEmpty.signal();
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the oldest item that was not written yet has waited longer than the lag budget.
+     * This includes the items the writer took last, while it is blocked writing them.
+     * @return true if the client does not keep up and should be disconnected
+     */
+    public boolean isOverLagBudget() {
+        lock.lock();
+        try {
+            return isOverLagBudget(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isOverLagBudget(long now) {
+        if (lagBudgetNanos <= 0) return false;
+        if (inFlight && now - inFlightSince > lagBudgetNanos) return true;
+        Entry<T> head = entries.peekFirst();
+        return head != null && now - head.enqueuedAt > lagBudgetNanos;
+    }
+
+    /**
+     * Removes the oldest item without waiting. The items taken before are considered written.
+     * @return the oldest item or null if the queue is empty
+     */
+    public T poll() {
+        lock.lock();
+        try {
+            inFlight = false;
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the oldest item, waiting until one is available. The items taken before are considered written.
+     * @return the oldest item or null once the queue is closed and empty
+     * @throws InterruptedException if the writer is interrupted while waiting
+     */
+    public T take() throws InterruptedException {
+        lock.lock();
+        try {
+            inFlight = false;
+            while (entries.isEmpty()) {
+                if (closed) return null;
+                notEmpty.await();
+            }
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to the given number of items without waiting. The items taken before are considered written.
+     * @param target the collection the items are added to
+     * @param max the maximum number of items to remove
+     * @return the number of removed items
+     */
+    public int drainTo(Collection<? super T> target, int max) {
+        lock.lock();
+        try {
+            inFlight = false;
+            int count = 0;
+            while (count < max && !entries.isEmpty()) {
+                target.add(removeFirst());
+                count++;
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private T removeFirst() {
+        Entry<T> entry = entries.pollFirst();
+        if (entry == null) return null;
+        if (entry == mergeableEntry) mergeableEntry = null;
+        if (!inFlight) {
+            inFlight = true;
+            inFlightSince = entry.enqueuedAt;
+        }
+        return entry.item;
+    }
+
+    /**
+     * Rejects all further offers and wakes up a waiting writer. Items already queued can still be taken.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return entries.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of items that were replaced by a newer mergeable item before they were sent.
+     * @return the number of merged items
+     */
+    public long getMerged() {
+        lock.lock();
+        try {
+            return merged;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
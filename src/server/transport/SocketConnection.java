@@ -0,0 +1,278 @@
+package server.transport;
+
+import protocol.messages.Message;
+import protocol.messages.MessageType;
+import protocol.transport.EncodedMessage;
+import server.ServerOptions;
+import server.metrics.ServerMetrics;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking connection using Java object streams on a socket.
+ * The owning ServerPlayer reads from it on its own thread. Outgoing messages are serialized by the sending thread,
+ * put into a bounded queue and written by a dedicated writer thread, so a slow client never blocks its sender.
+ */
+public class SocketConnection implements Connection {
+
+    private final Socket socket;
+    private final int resetMessages;
+    private final long resetBytes;
+
+    private final OutboundQueue<byte[]> queue;
+    private final ThreadFactory writerFactory;
+    private final ServerMetrics metrics;
+
+    // Messages are serialized by the sending thread, so they are captured in the state they had when they were sent
+    private final ReentrantLock encodeLock = new ReentrantLock();
+    private final ByteArrayOutputStream encoded = new ByteArrayOutputStream(1024);
+    private final CountingObjectOutputStream out;
+    private int messagesSinceReset = 0;
+
+    private ObjectInputStream in;
+
+    /**
+     * Creates a new blocking connection for the given socket with the default options and a platform writer thread.
+     * @param socket the accepted client socket
+     * @param metrics the metrics that count the bytes and message sizes
+     */
+    public SocketConnection(Socket socket, ServerMetrics metrics) {
+        this(socket, new ServerOptions(), Thread.ofPlatform().daemon().factory(), metrics);
+    }
+
+    /**
+     * Creates a new blocking connection for the given socket.
+     * The object stream remembers every object it wrote until it is reset, so it is reset after the number
+     * of messages or bytes configured in the options, whichever comes first.
+     * @param socket the accepted client socket
+     * @param options the server options with the stream-reset policy, the send queue capacity and the lag budget
+     * @param writerFactory creates the writer thread once the connection is opened
+     * @param metrics the metrics that count the bytes and message sizes
+     */
+    public SocketConnection(Socket socket, ServerOptions options, ThreadFactory writerFactory, ServerMetrics metrics) {
+        this.socket = socket;
+        this.resetMessages = options.getStreamResetMessages();
+        this.resetBytes = options.getStreamResetBytes();
+        this.queue = new OutboundQueue<>(options.getSendQueueCapacity(), options.getLagBudgetMillis());
+        this.writerFactory = writerFactory;
+        this.metrics = metrics;
+
+        // The stream header is queued first, so messages sent before the connection is opened are queued after it;
+        // the server may broadcast to a player as soon as it is registered
+        try {
+            this.out = new CountingObjectOutputStream(encoded);
+            out.flush();
+            queue.offer(encoded.toByteArray(), false); // the queue is empty, so the header is never rejected
+            encoded.reset();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // the header is written to memory
+        }
+    }
+
+    /**
+     * Starts the writer and opens the input stream. Blocks until the client has sent its stream header.
+     * @throws IOException if the input stream cannot be created
+     */
+    public void open() throws IOException {
+        writerFactory.newThread(this::writeLoop).start();
+
+        in = new ObjectInputStream(new CountingInputStream(socket.getInputStream()));
+    }
+
+    /**
+     * Reads the next message from the client. Blocks until a message is available.
+     * @return the received message
+     * @throws IOException if the connection is closed
+     * @throws ClassNotFoundException if the received object is unknown
+     */
+    public Message readMessage() throws IOException, ClassNotFoundException {
+        return (Message) in.readObject();
+    }
+
+    public boolean isConnected() {
+        return socket.isConnected();
+    }
+
+    @Override
+    public void sendMessage(Message message) throws IOException {
+        if (message.getType() == MessageType.PLAYER_HOVER) {
+            // A hover message may be replaced by a newer one, so it must not leave handles the next message refers to
+            sendMessage(new EncodedMessage(message));
+            return;
+        }
+
+        encodeLock.lock();
+        try {
+            out.writeObject(message);
+            messagesSinceReset++;
+
+            if ((resetMessages > 0 && messagesSinceReset >= resetMessages)
+                    || (resetBytes > 0 && out.getBytesSinceReset() >= resetBytes)) {
+                resetStream();
+            }
+            out.flush();
+            metrics.recordMessageBytes(message.getType(), enqueueEncoded());
+        } finally {
+            encodeLock.unlock();
+        }
+    }
+
+    @Override
+    public void sendMessage(EncodedMessage message) throws IOException {
+        byte[] record = message.getStreamRecord();
+        metrics.recordMessageBytes(message.getMessage().getType(), record.length);
+
+        encodeLock.lock();
+        try {
+            enqueue(record, message.getMessage().getType() == MessageType.PLAYER_HOVER);
+
+            // The record resets the client's handle table, so ours must not refer to earlier objects either.
+            // The reset marker goes out with the next message, after the record.
+            resetStream();
+        } finally {
+            encodeLock.unlock();
+        }
+    }
+
+    /**
+     * Queues the bytes the object stream produced since the last call; must be called with the encode lock held.
+     * @return the number of queued bytes
+     * @throws IOException if the connection is closed or the client does not keep up
+     */
+    private int enqueueEncoded() throws IOException {
+        byte[] bytes = encoded.toByteArray();
+        encoded.reset();
+        enqueue(bytes, false);
+        return bytes.length;
+    }
+
+    private void enqueue(byte[] bytes, boolean mergeable) throws IOException {
+        OutboundQueue.Result result = queue.offer(bytes, mergeable);
+        if (result == OutboundQueue.Result.CLOSED) throw new IOException("Connection closed");
+        if (result == OutboundQueue.Result.REJECTED) {
+            // The client does not keep up; closing the socket also ends the reader, which removes the player
+            close();
+            throw new IOException("Send queue of " + getIp() + " exceeded its capacity or lag budget");
+        }
+    }
+
+    /**
+     * Drops all objects retained by the output stream. The client drops its copies when it reads the reset marker.
+     * @throws IOException if the reset marker cannot be written
+     */
+    private void resetStream() throws IOException {
+        out.reset();
+        messagesSinceReset = 0;
+    }
+
+    /**
+     * Writes queued messages until the connection is closed.
+     * Messages that are already queued are written together and flushed once.
+     */
+    private void writeLoop() {
+        try {
+            OutputStream socketOut = new BufferedOutputStream(socket.getOutputStream());
+            byte[] bytes;
+            while ((bytes = queue.take()) != null) {
+                socketOut.write(bytes);
+                metrics.recordBytesOut(bytes.length);
+                if (queue.isEmpty()) socketOut.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            close();
+        }
+    }
+
+    /**
+     * Returns the number of objects currently retained by the output stream.
+     * @return the retained objects
+     */
+    public int getRetainedHandles() {
+        return out.getRetainedHandles();
+    }
+
+    /**
+     * Returns the highest number of objects the output stream retained at once.
+     * @return the peak of retained objects
+     */
+    public int getPeakRetainedHandles() {
+        return out.getPeakRetainedHandles();
+    }
+
+    /**
+     * Returns how often the output stream was reset.
+     * @return the number of resets
+     */
+    public long getStreamResets() {
+        return out.getResets();
+    }
+
+    @Override
+    public int getQueuedMessages() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of hover messages that were replaced by a newer one before they were written.
+     * @return the number of merged hover messages
+     */
+    public long getMergedHovers() {
+        return queue.getMerged();
+    }
+
+    @Override
+    public boolean closeIfLagging() {
+        if (!queue.isOverLagBudget()) return false;
+        // The writer is stuck or far behind; closing the socket also ends the reader, which removes the player
+        close();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        queue.close();
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public String getIp() {
+        return socket.getInetAddress().getHostAddress();
+    }
+
+    /**
+     * Counts the bytes the object stream reads from the socket.
+     */
+    private class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) metrics.recordBytesIn(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) metrics.recordBytesIn(read);
+            return read;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package utils;
+
+/**
+ * Set of cells of a square board with one bit per cell, stored row by row in 64-bit words.
+ * Set operations work on whole words, so checking shots against a fleet takes a few AND and popcount
+ * instructions instead of comparing cell objects. A 20x20 board fits into 7 words.
+ */
+public class Bitboard {
+
+    private final int size;
+    private final long[] words;
+
+    /**
+     * Creates an empty bitboard.
+     * @param size the number of cells per side of the board
+     */
+    public Bitboard(int size) {
+        this.size = size;
+        this.words = new long[(size * size + 63) >>> 6];
+    }
+
+    /**
+     * Creates a copy of a bitboard.
+     * @param other the bitboard to copy
+     */
+    public Bitboard(Bitboard other) {
+        this.size = other.size;
+        this.words = other.words.clone();
+    }
+
+    /**
+     * Creates a bitboard with all cells of a rectangle set. Cells outside the board are left out.
+     * @param size the number of cells per side of the board
+     * @param x0 the left column of the rectangle
+     * @param y0 the top row of the rectangle
+     * @param x1 the right column of the rectangle, inclusive
+     * @param y1 the bottom row of the rectangle, inclusive
+     * @return the bitboard
+     */
+    public static Bitboard area(int size, int x0, int y0, int x1, int y1) {
+        Bitboard area = new Bitboard(size);
+        for (int y = Math.max(0, y0); y <= Math.min(size - 1, y1); y++) {
+            for (int x = Math.max(0, x0); x <= Math.min(size - 1, x1); x++) {
+                area.set(x, y);
+            }
+        }
+        return area;
+    }
+
+    /**
+     * Sets a cell. Cells outside the board are ignored.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     */
+    public void set(int x, int y) {
+        if (!isOnBoard(x, y)) return;
+        int index = y * size + x;
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Returns whether a cell is set.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return true if the cell is on the board and set
+     */
+    public boolean contains(int x, int y) {
+        if (!isOnBoard(x, y)) return false;
+        int index = y * size + x;
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets all cells that are set in another bitboard of the same size.
+     * @param other the other bitboard
+     */
+    public void or(Bitboard other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Returns whether a cell is set in both bitboards.
+     * @param other the other bitboard of the same size
+     * @return true if the bitboards share at least one cell
+     */
+    public boolean intersects(Bitboard other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of cells set in both bitboards.
+     * @param other the other bitboard of the same size
+     * @return the number of shared cells
+     */
+    public int countCommon(Bitboard other) {
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether every cell of another bitboard is set in this one.
+     * @param other the other bitboard of the same size
+     * @return true if the other bitboard is a subset of this one
+     */
+    public boolean containsAll(Bitboard other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((other.words[i] & ~words[i]) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of set cells.
+     * @return the number of set cells
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    private boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size;
+    }
+}
@@ -0,0 +1,92 @@
+package utils;
+
+import protocol.Ship;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The ships of one player as bitboards: one per ship and one with the cells occupied by any ship.
+ * The bitboards are built once, so the ships must not move afterwards; the server creates the fleets
+ * when the in-game phase starts.
+ */
+public class Fleet {
+
+    private final ArrayList<Ship> ships;
+    private final int boardSize;
+    private final Bitboard[] shipCells;
+    private final Bitboard occupied;
+    private final int[] shipIndex; // index of the ship on each cell, row by row, -1 for water
+
+    /**
+     * Creates the fleet of a player.
+     * @param ships the placed ships of the player
+     * @param boardSize the size of the board
+     */
+    public Fleet(ArrayList<Ship> ships, int boardSize) {
+        this.ships = ships;
+        this.boardSize = boardSize;
+        this.shipCells = new Bitboard[ships.size()];
+        this.occupied = new Bitboard(boardSize);
+        this.shipIndex = new int[boardSize * boardSize];
+        Arrays.fill(shipIndex, -1);
+
+        for (int i = 0; i < ships.size(); i++) {
+            Bitboard cells = new Bitboard(boardSize);
+            for (Point p : ships.get(i).getOccupiedCells()) {
+                cells.set(p.x, p.y);
+                if (cells.contains(p.x, p.y)) shipIndex[p.y * boardSize + p.x] = i;
+            }
+            shipCells[i] = cells;
+            occupied.or(cells);
+        }
+    }
+
+    /**
+     * Returns whether a ship occupies the given cell.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return true if the cell belongs to a ship
+     */
+    public boolean isOccupied(int x, int y) {
+        return occupied.contains(x, y);
+    }
+
+    /**
+     * Returns the index of the ship that occupies the given cell.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return the index of the ship in the fleet, or -1 if the cell is water or not on the board
+     */
+    public int getShipIndex(int x, int y) {
+        if (x < 0 || x >= boardSize || y < 0 || y >= boardSize) return -1;
+        return shipIndex[y * boardSize + x];
+    }
+
+    /**
+     * Returns the number of cells a ship occupies on the board.
+     * @param index the index of the ship in the fleet
+     * @return the number of cells
+     */
+    public int getShipCellCount(int index) {
+        return shipCells[index].cardinality();
+    }
+
+    /**
+     * Returns the number of cells of an area that are occupied by a ship, e.g. for the radar.
+     * @param area the area
+     * @return the number of occupied cells
+     */
+    public int countOccupied(Bitboard area) {
+        return occupied.countCommon(area);
+    }
+
+    public ArrayList<Ship> getShips() {
+        return ships;
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+}
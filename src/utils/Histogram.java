@@ -0,0 +1,88 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values, e.g. durations in milliseconds.
+ * Values below 16 are counted exactly; larger values fall into one of 8 buckets per power of two,
+ * so a percentile is reported with an error of at most 12.5%.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_VALUES = 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(EXACT_VALUES + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     * @param value the value
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the value below which the given share of the recorded values lies.
+     * @param percentile the percentile between 0 and 100
+     * @return the upper bound of the bucket that contains the percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBoundOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    private static int indexOf(long value) {
+        if (value < EXACT_VALUES) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_VALUES + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < EXACT_VALUES) return index;
+        int exponent = (index - EXACT_VALUES) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (index - EXACT_VALUES) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() +
+                ", p50=" + getPercentile(50) +
+                ", p90=" + getPercentile(90) +
+                ", p99=" + getPercentile(99) +
+                ", max=" + getMax();
+    }
+}
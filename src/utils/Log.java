@@ -0,0 +1,190 @@
+package utils;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous logger. The calling thread only checks the level and puts the record into a bounded ring buffer;
+ * a daemon thread formats and prints it. If the buffer is full, the record is dropped and counted,
+ * so logging never blocks a game or connection thread.
+ * Messages that are expensive to build, e.g. ones that contain a game state, should be passed as a supplier,
+ * which is only called if the level is enabled.
+ */
+public class Log {
+
+    /**
+     * The severity of a record. Records below the configured level are discarded.
+     */
+    public enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR
+    }
+
+    private static final int CAPACITY = 8192;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    /**
+     * A record waiting to be printed.
+     */
+    private static class Record {
+        private final Level level;
+        private final long time;
+        private final String source;
+        private final String message;
+        private final Throwable throwable;
+
+        Record(Level level, String source, String message, Throwable throwable) {
+            this.level = level;
+            this.time = System.currentTimeMillis();
+            this.source = source;
+            this.message = message;
+            this.throwable = throwable;
+        }
+    }
+
+    private static volatile Level level = Level.INFO;
+
+    private static final Record[] ring = new Record[CAPACITY];
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final Condition notEmpty = lock.newCondition();
+    private static int head = 0;
+    private static int size = 0;
+    private static long dropped = 0;
+
+    // Only one thread prints at a time, so records of the writer and the shutdown hook do not interleave
+    private static final ReentrantLock printLock = new ReentrantLock();
+
+    static {
+        Thread.ofPlatform().name("log-writer").daemon().start(Log::writeLoop);
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+    }
+
+    /**
+     * Sets the lowest level that is logged.
+     * @param level the level
+     */
+    public static void setLevel(Level level) {
+        Log.level = level;
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(Log.level) >= 0;
+    }
+
+    public static void debug(String source, String message) {
+        log(Level.DEBUG, source, message, null);
+    }
+
+    public static void debug(String source, Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) log(Level.DEBUG, source, message.get(), null);
+    }
+
+    public static void info(String source, String message) {
+        log(Level.INFO, source, message, null);
+    }
+
+    public static void info(String source, Supplier<String> message) {
+        if (isEnabled(Level.INFO)) log(Level.INFO, source, message.get(), null);
+    }
+
+    public static void warn(String source, String message) {
+        log(Level.WARN, source, message, null);
+    }
+
+    public static void warn(String source, String message, Throwable throwable) {
+        log(Level.WARN, source, message, throwable);
+    }
+
+    public static void error(String source, String message, Throwable throwable) {
+        log(Level.ERROR, source, message, throwable);
+    }
+
+    /**
+     * Returns the number of records that were dropped because the buffer was full.
+     * @return the number of dropped records
+     */
+    public static long getDropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void log(Level level, String source, String message, Throwable throwable) {
+        if (!isEnabled(level)) return;
+        Record record = new Record(level, source, message, throwable);
+
+        lock.lock();
+        try {
+            if (size == CAPACITY) {
+                dropped++;
+                return;
+            }
+            ring[(head + size) % CAPACITY] = record;
+            size++;
+            if (size == 1) notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Record poll() {
+        lock.lock();
+        try {
+            if (size == 0) return null;
+            Record record = ring[head];
+            ring[head] = null;
+            head = (head + 1) % CAPACITY;
+            size--;
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            lock.lock();
+            try {
+                while (size == 0) notEmpty.await();
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            flush();
+        }
+    }
+
+    /**
+     * Prints all buffered records. Called by the writer and once more when the JVM shuts down.
+     */
+    private static void flush() {
+        printLock.lock();
+        try {
+            Record record;
+            while ((record = poll()) != null) {
+                print(record);
+            }
+            System.out.flush();
+            System.err.flush();
+        } finally {
+            printLock.unlock();
+        }
+    }
+
+    private static void print(Record record) {
+        PrintStream out = record.level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+        out.println(TIME_FORMAT.format(Instant.ofEpochMilli(record.time)) + " " + record.level + " [" + record.source + "] " + record.message);
+        if (record.throwable != null) record.throwable.printStackTrace(out);
+    }
+}
@@ -0,0 +1,153 @@
+package utils;
+
+import protocol.game.Cell;
+import protocol.game.Move;
+import protocol.game.items.AirStrikeItem;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * The moves of one player, indexed for validation: the cells fired at, the targets of radars and sea bombs
+ * and the lines of air strikes. Looking up whether a move repeats an earlier one takes constant time,
+ * however many moves were made before. The cells not fired at yet are kept as a set that can be sampled
+ * uniformly in constant time, for the random move made when a player runs out of time.
+ */
+public class MoveHistory {
+
+    private final Bitboard fired;
+    private final HashSet<Point> firedOffBoard = new HashSet<>(); // only air strikes on lines outside the board
+    private final Bitboard radarTargets;
+    private final Bitboard seaBombTargets;
+    private final HashSet<Long> airStrikeLines = new HashSet<>();
+
+    // The first freeCount entries of freeCells are the cells not fired at, by index y * size + x, in no order;
+    // freePosition holds the position of each cell in freeCells, or -1 once it was fired at
+    private final int[] freeCells;
+    private final int[] freePosition;
+    private int freeCount;
+
+    /**
+     * Creates an empty history.
+     * @param boardSize the size of the board
+     */
+    public MoveHistory(int boardSize) {
+        this.fired = new Bitboard(boardSize);
+        this.radarTargets = new Bitboard(boardSize);
+        this.seaBombTargets = new Bitboard(boardSize);
+
+        this.freeCount = boardSize * boardSize;
+        this.freeCells = new int[freeCount];
+        this.freePosition = new int[freeCount];
+        for (int i = 0; i < freeCount; i++) {
+            freeCells[i] = i;
+            freePosition[i] = i;
+        }
+    }
+
+    /**
+     * Creates the history of a list of moves, e.g. from a game state received by the client.
+     * @param moves the moves of the player
+     * @param boardSize the size of the board
+     * @return the history
+     */
+    public static MoveHistory of(ArrayList<Move> moves, int boardSize) {
+        MoveHistory history = new MoveHistory(boardSize);
+        for (Move move : moves) {
+            history.record(move);
+        }
+        return history;
+    }
+
+    /**
+     * Adds a move with its affected cells. Every move must be recorded exactly once, after it was validated.
+     * @param move the move
+     */
+    public void record(Move move) {
+        for (Cell cell : move.getAffectedCells()) {
+            if (isOnBoard(cell.getX(), cell.getY())) {
+                fired.set(cell.getX(), cell.getY());
+                removeFree(cell.getY() * fired.getSize() + cell.getX());
+            } else {
+                firedOffBoard.add(new Point(cell.getX(), cell.getY()));
+            }
+        }
+
+        if (move.getRadarItem() != null) {
+            radarTargets.set(move.getX(), move.getY());
+        } else if (move.getSeaBombItem() != null) {
+            seaBombTargets.set(move.getX(), move.getY());
+        } else if (move.getAirStrikeItem() != null) {
+            airStrikeLines.add(lineKey(move.getAirStrikeItem().getOrientation(), move.getRowOrColumn()));
+        }
+    }
+
+    /**
+     * Returns whether a cell was affected by any recorded move.
+     * @param x the column of the cell
+     * @param y the row of the cell
+     * @return true if the cell was fired at
+     */
+    public boolean isFired(int x, int y) {
+        if (isOnBoard(x, y)) return fired.contains(x, y);
+        return !firedOffBoard.isEmpty() && firedOffBoard.contains(new Point(x, y));
+    }
+
+    public boolean hasRadarAt(int x, int y) {
+        return radarTargets.contains(x, y);
+    }
+
+    public boolean hasSeaBombAt(int x, int y) {
+        return seaBombTargets.contains(x, y);
+    }
+
+    public boolean hasAirStrikeOn(AirStrikeItem.Orientation orientation, int rowOrColumn) {
+        return airStrikeLines.contains(lineKey(orientation, rowOrColumn));
+    }
+
+    /**
+     * Picks a cell not fired at yet, each with the same probability.
+     * @param random the source of randomness
+     * @return the index y * size + x of the cell, or -1 if every cell was fired at
+     */
+    public int getRandomFreeCell(Random random) {
+        if (freeCount == 0) return -1;
+        return freeCells[random.nextInt(freeCount)];
+    }
+
+    public int getFreeCellCount() {
+        return freeCount;
+    }
+
+    /**
+     * Returns the cells of the board that were fired at.
+     * @return the bitboard, which must not be modified
+     */
+    public Bitboard getFiredCells() {
+        return fired;
+    }
+
+    /**
+     * Removes a cell from the free cells by moving the last free cell into its place.
+     */
+    private void removeFree(int cell) {
+        int position = freePosition[cell];
+        if (position < 0) return;
+
+        int last = freeCells[--freeCount];
+        freeCells[position] = last;
+        freePosition[last] = position;
+        freePosition[cell] = -1;
+    }
+
+    private boolean isOnBoard(int x, int y) {
+        return x >= 0 && x < fired.getSize() && y >= 0 && y < fired.getSize();
+    }
+
+    private static long lineKey(AirStrikeItem.Orientation orientation, int rowOrColumn) {
+        int ordinal = orientation == null ? -1 : orientation.ordinal();
+        return ((long) ordinal << 32) | (rowOrColumn & 0xFFFFFFFFL);
+    }
+}
@@ -1,24 +1,39 @@
 package utils;
 
 import protocol.GameState;
-import protocol.Ship;
 import protocol.game.Cell;
 import protocol.game.Move;
 
-import java.awt.*;
-import java.util.ArrayList;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class MoveManager {
 
     private final GameState gameState;
+    private final MoveHistory historyA;
+    private final MoveHistory historyB;
 
     /**
-     * Creates a new MoveManager with the given game state.
+     * Creates a new MoveManager with the given game state. The moves of both players are indexed once.
      * @param gameState The game state to be managed.
      */
     public MoveManager(GameState gameState) {
+        this(gameState,
+                MoveHistory.of(gameState.getPlayerA().getMoves(), gameState.getBoardSize()),
+                MoveHistory.of(gameState.getPlayerB().getMoves(), gameState.getBoardSize()));
+    }
+
+    /**
+     * Creates a new MoveManager with the given game state and the histories of the moves of both players,
+     * which are kept up to date by the server.
+     * @param gameState The game state to be managed.
+     * @param historyA The moves of player A.
+     * @param historyB The moves of player B.
+     */
+    public MoveManager(GameState gameState, MoveHistory historyA, MoveHistory historyB) {
         this.gameState = gameState;
+        this.historyA = historyA;
+        this.historyB = historyB;
     }
 
     /**
@@ -34,11 +49,9 @@ public class MoveManager {
             return false;
 
         if(gameState.getPlayerA().isPlayer(player)) {
-            ArrayList<Move> moves = gameState.getPlayerA().getMoves();
-            return isMoveValid(move, moves);
+            return isMoveValid(move, historyA);
         } else if(gameState.getPlayerB().isPlayer(player)) {
-            ArrayList<Move> moves = gameState.getPlayerB().getMoves();
-            return isMoveValid(move, moves);
+            return isMoveValid(move, historyB);
         } else {
             return false;
         }
@@ -47,54 +60,39 @@ public class MoveManager {
     /**
      * Checks if the move is valid by checking if it has already been hit or if it is out of bounds.
      * @param move The move to be checked.
-     * @param moves The list of moves already made.
+     * @param history The moves already made.
      * @return true if the move is valid, false otherwise.
      */
-    private boolean isMoveValid(Move move, ArrayList<Move> moves) {
-        ArrayList<Cell> pointsAlreadyHit = new ArrayList<>();
-
+    private boolean isMoveValid(Move move, MoveHistory history) {
         if(move.getRadarItem() != null) {
             // Only check if the target already has a radar item placed.
-            for (Move m : moves) {
-                if (m.getRadarItem() != null && m.getX() == move.getX() && m.getY() == move.getY()) {
-                    System.out.println("Already placed a radar item on this point");
-                    return false;
-                }
+            if (history.hasRadarAt(move.getX(), move.getY())) {
+                Log.debug("MoveManager", "Already placed a radar item on this point");
+                return false;
             }
         } else if(move.getSeaBombItem() != null) {
             // Only check if the target already has a sea bomb item placed.
-            for (Move m : moves) {
-                if (m.getSeaBombItem() != null && m.getX() == move.getX() && m.getY() == move.getY()) {
-                    System.out.println("Already placed a sea bomb item on this point");
-                    return false;
-                }
+            if (history.hasSeaBombAt(move.getX(), move.getY())) {
+                Log.debug("MoveManager", "Already placed a sea bomb item on this point");
+                return false;
             }
             // Check if x,y is in bounds – because it is a 2x2 and x,y is the top left corner.
             if(move.getX() + 1 >= gameState.getBoardSize() || move.getY() + 1 >= gameState.getBoardSize()) {
-                System.out.println("Sea bomb item out of bounds");
+                Log.debug("MoveManager", "Sea bomb item out of bounds");
                 return false;
             }
         } else if(move.getAirStrikeItem() != null) {
             // Only check if the target already has an air strike item placed.
-            for (Move m : moves) {
-                if (m.getAirStrikeItem() != null && m.getAirStrikeItem().getOrientation() == move.getAirStrikeItem().getOrientation()) {
-                    if (m.getRowOrColumn() == move.getRowOrColumn()) {
-                        System.out.println("Already placed an air strike item on this row/column");
-                        return false;
-                    }
-                }
+            if (history.hasAirStrikeOn(move.getAirStrikeItem().getOrientation(), move.getRowOrColumn())) {
+                Log.debug("MoveManager", "Already placed an air strike item on this row/column");
+                return false;
             }
         } else {
-            // For a normal hit: Collect all already affected cells.
-            for(Move m : moves) {
-                pointsAlreadyHit.addAll(m.getAffectedCells());
-            }
+            // For a normal hit: Check the cells against all already affected cells.
             for (Cell cell : move.getAffectedCells()) {
-                for (Cell point : pointsAlreadyHit) {
-                    if (point.getX() == cell.getX() && point.getY() == cell.getY()) {
-                        System.out.println("Already hit this point");
-                        return false;
-                    }
+                if (history.isFired(cell.getX(), cell.getY())) {
+                    Log.debug("MoveManager", "Already hit this point");
+                    return false;
                 }
             }
         }
@@ -102,86 +100,37 @@ public class MoveManager {
     }
 
     /**
-     * Generates a random move for the specified player.
+     * Generates a random move for the specified player: a shot at a cell the player has not fired at yet,
+     * each with the same probability. Only when every cell was fired at, the shot goes to any cell.
      * @param player The UUID of the player.
-     * @return A valid random move.
+     * @return A random move.
      */
     public Move makeRandomMove(UUID player) {
-        int x = (int) (Math.random() * gameState.getBoardSize());
-        int y = (int) (Math.random() * gameState.getBoardSize());
-        Move move = new Move(x, y);
-        System.out.println("Attempting to make random move: " + move);
-        while(!isPlayerMoveMoveValid(player, move)) {
-            x = (int) (Math.random() * gameState.getBoardSize());
-            y = (int) (Math.random() * gameState.getBoardSize());
-            move = new Move(x, y);
+        MoveHistory history;
+        if(gameState.getPlayerA().isPlayer(player)) {
+            history = historyA;
+        } else if(gameState.getPlayerB().isPlayer(player)) {
+            history = historyB;
+        } else {
+            throw new IllegalArgumentException("Unknown player: " + player);
         }
-        System.out.println("Made random move: " + move);
-        return move;
-    }
 
-    /**
-     * Checks if a move is still possible.
-     * @return true if a move is still possible, false otherwise.
-     */
-    public boolean isAMoveStillPossible() {
         int boardSize = gameState.getBoardSize();
-        // create a 2D array to track hit cells
-        boolean[][] hitCells = new boolean[boardSize][boardSize];
+        int cell = history.getRandomFreeCell(ThreadLocalRandom.current());
+        if (cell < 0) cell = ThreadLocalRandom.current().nextInt(boardSize * boardSize);
 
-        // This is done to check if there are any cells that are not hit yet.
-        for (Move move : gameState.getPlayerA().getMoves()){
-            move.computeAffectedCells(boardSize);
-            for (Cell cell : move.getAffectedCells()) {
-                int x = cell.getX();
-                int y = cell.getY();
-                if (x >= 0 && x < boardSize && y >= 0 && y < boardSize) {
-                    hitCells[x][y] = true;
-                }
-            }
-        }
-        // Check if there are any cells that are not hit yet.
-        for (Move move : gameState.getPlayerB().getMoves()){
-            move.computeAffectedCells(boardSize);
-            for (Cell cell : move.getAffectedCells()) {
-                int x = cell.getX();
-                int y = cell.getY();
-                if (x >= 0 && x < boardSize && y >= 0 && y < boardSize) {
-                    hitCells[x][y] = true;
-                }
-            }
-        }
-        // Check weather there are any cells that are not hit yet.
-        for (int x = 0; x < boardSize; x++) {
-            for (int y = 0; y < boardSize; y++) {
-                if (!hitCells[x][y]) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        Move move = new Move(cell % boardSize, cell / boardSize);
+        if (Log.isEnabled(Log.Level.DEBUG)) Log.debug("MoveManager", "Made random move: " + move);
+        return move;
     }
 
     /**
-     * Checks if the given move hits any of the ships.
-     * @param ships The list of ships to check against.
-     * @param move The move to be checked.
-     * @return true if the move hits a ship, false otherwise.
+     * Checks if a move is still possible.
+     * @return true if a cell has not been hit by either player yet, false otherwise.
      */
-    public static boolean moveHasHit(ArrayList<Ship> ships, Move move) {
-        // Ensure that affectedCells are computed before checking.
-        // (If not already computed, you might want to call move.computeAffectedCells(boardSize) beforehand.)
-        for (Cell cell : move.getAffectedCells()) {
-            for (Ship ship : ships) {
-                // Get the list of points (cells) occupied by the ship.
-                ArrayList<Point> occupiedCells = ship.getOccupiedCells();
-                for (Point p : occupiedCells) {
-                    if (p.x == cell.getX() && p.y == cell.getY()) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    public boolean isAMoveStillPossible() {
+        Bitboard hitCells = new Bitboard(historyA.getFiredCells());
+        hitCells.or(historyB.getFiredCells());
+        return hitCells.cardinality() < gameState.getBoardSize() * gameState.getBoardSize();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package utils;
+
+import protocol.Ship;
+import protocol.game.Cell;
+import protocol.game.Move;
+
+import java.util.ArrayList;
+
+/**
+ * The shots of one player at the fleet of the opponent: the history of the moves, the hits per ship and the sunken ships.
+ * It is updated once per move and only looks at the cells of that move,
+ * so the cost of a move does not grow with the number of moves made before it.
+ */
+public class TargetBoard {
+
+    private final Fleet fleet;
+    private final MoveHistory history;
+    private final int[] hitCells; // distinct cells hit per ship
+    private final boolean[] sunk;
+    private int sunkCount = 0;
+    private int affectedCellCount = 0; // cells affected by all moves, cells fired at twice are counted twice
+
+    /**
+     * Creates an empty target board.
+     * @param fleet the fleet of the opponent
+     */
+    public TargetBoard(Fleet fleet) {
+        this.fleet = fleet;
+        this.history = new MoveHistory(fleet.getBoardSize());
+        this.hitCells = new int[fleet.getShips().size()];
+        this.sunk = new boolean[fleet.getShips().size()];
+    }
+
+    /**
+     * Applies a move: computes its affected cells, marks each of them as hit or miss, updates the hits per ship
+     * and, for a radar, stores the number of occupied cells around the target. Finally the move is added to the history.
+     * Every move must be applied exactly once, after it was validated.
+     * @param move the move
+     * @return true if the move hit a ship
+     */
+    public boolean apply(Move move) {
+        move.computeAffectedCells(fleet.getBoardSize());
+
+        boolean hit = false;
+        for (Cell cell : move.getAffectedCells()) {
+            affectedCellCount++;
+
+            int ship = fleet.getShipIndex(cell.getX(), cell.getY());
+            cell.setHit(ship >= 0);
+            if (ship >= 0) hit = true;
+
+            if (history.isFired(cell.getX(), cell.getY())) continue;
+
+            if (ship >= 0 && ++hitCells[ship] == fleet.getShipCellCount(ship)) {
+                sunk[ship] = true;
+                sunkCount++;
+            }
+        }
+        history.record(move);
+
+        if (move.getRadarItem() != null) {
+            move.setRadarShipsIn3x3Area(ItemManager.getAmountOfShipsIn3x3Area(fleet, move.getX(), move.getY()));
+        }
+        return hit;
+    }
+
+    /**
+     * Returns the sunken ships.
+     * @return a new list of the sunken ships in the order of the fleet
+     */
+    public ArrayList<Ship> getSunkenShips() {
+        ArrayList<Ship> sunkenShips = new ArrayList<>();
+        for (int i = 0; i < sunk.length; i++) {
+            if (sunk[i]) sunkenShips.add(fleet.getShips().get(i));
+        }
+        return sunkenShips;
+    }
+
+    /**
+     * Returns the moves applied so far, for validating the next move of the player.
+     * @return the history
+     */
+    public MoveHistory getHistory() {
+        return history;
+    }
+
+    public int getSunkCount() {
+        return sunkCount;
+    }
+
+    /**
+     * Returns the number of cells affected by all applied moves; a cell fired at twice is counted twice.
+     * @return the number of affected cells
+     */
+    public int getAffectedCellCount() {
+        return affectedCellCount;
+    }
+}
@@ -0,0 +1,298 @@
+package server;
+
+import protocol.GameState;
+import protocol.GameStateDelta;
+import protocol.Ship;
+import protocol.ShipPlacementHelper;
+import protocol.game.Cell;
+import protocol.game.Move;
+import protocol.messages.ErrorMessage;
+import protocol.messages.Message;
+import protocol.messages.RegisterMessage;
+import protocol.messages.game.GameOverMessage;
+import protocol.messages.game.GameStateSyncMessage;
+import protocol.messages.game.GameStateSyncRequestMessage;
+import protocol.messages.game.building.GameBuildingStartMessage;
+import protocol.messages.game.building.PlayerReadyMessage;
+import protocol.messages.game.building.PlayerUpdateShipPlacement;
+import protocol.messages.game.ingame.GameInGameStartMessage;
+import protocol.messages.game.ingame.MoveMadeMessage;
+import protocol.messages.game.ingame.PlayerMoveMessage;
+import protocol.messages.game.ingame.PlayerTurnChangeMessage;
+import protocol.messages.lobby.JoinQueueMessage;
+import protocol.transport.Frames;
+import utils.Histogram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A scripted player for load and soak runs. It speaks the protocol of the real client over a socket:
+ * it joins the queue, places its ships at random, fires at a random cell it has not fired at whenever it is
+ * its turn and queues again after a game until it has played the requested number of games.
+ * Game-state deltas are applied like the client does; after a gap it requests a full state and ignores deltas
+ * until the state arrives.
+ */
+public class BotClient implements Runnable {
+
+    /**
+     * Counters shared by all bots of a run.
+     */
+    public static class Stats {
+        final AtomicInteger gamesFinished = new AtomicInteger();
+        final AtomicLong moves = new AtomicLong();
+        final AtomicLong syncRequests = new AtomicLong();
+        final AtomicLong staleStates = new AtomicLong(); // game over with a state behind the final one
+        final AtomicInteger failures = new AtomicInteger();
+        final Histogram moveMillis = new Histogram(); // from sending a move until the server reports it
+
+        public int getGamesFinished() {
+            return gamesFinished.get();
+        }
+
+        public long getMoves() {
+            return moves.get();
+        }
+
+        public long getSyncRequests() {
+            return syncRequests.get();
+        }
+
+        public long getStaleStates() {
+            return staleStates.get();
+        }
+
+        public int getFailures() {
+            return failures.get();
+        }
+
+        public Histogram getMoveMillis() {
+            return moveMillis;
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final int games;
+    private final double dropDeltaRate;
+    private final Stats stats;
+    private final CountDownLatch done;
+    private final Random random = new Random();
+
+    private Socket socket;
+    private boolean framed;
+    private boolean binaryCodec;
+    private DataInputStream framedIn;
+    private BufferedOutputStream framedOut;
+    private ObjectInputStream in;
+    private ObjectOutputStream out;
+
+    private UUID id;
+    private GameState state;
+    private boolean awaitingSync;
+    private long movedAtSequence = -1;
+    private long moveSentAt;
+    private int gamesPlayed;
+
+    /**
+     * Creates a bot.
+     * @param host the host of the server
+     * @param port the port of the server
+     * @param games the number of games to play before disconnecting
+     * @param dropDeltaRate the share of deltas to ignore on purpose, to exercise the resync; 0 for none
+     * @param stats the counters of the run
+     * @param done counted down when the bot disconnects
+     */
+    public BotClient(String host, int port, int games, double dropDeltaRate, Stats stats, CountDownLatch done) {
+        this.host = host;
+        this.port = port;
+        this.games = games;
+        this.dropDeltaRate = dropDeltaRate;
+        this.stats = stats;
+        this.done = done;
+    }
+
+    @Override
+    public void run() {
+        try {
+            connect();
+            while (gamesPlayed < games) {
+                handle(read());
+            }
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            // Also reached when the server is stopped at the end of a run, so it is only counted
+            stats.failures.incrementAndGet();
+        } finally {
+            try {
+                if (socket != null) socket.close();
+            } catch (IOException ignored) {
+            }
+            done.countDown();
+        }
+    }
+
+    private void connect() throws IOException {
+        socket = new Socket(host, port);
+        BufferedInputStream input = new BufferedInputStream(socket.getInputStream());
+        framed = Frames.isFramed(input);
+        if (framed) {
+            framedIn = new DataInputStream(input);
+            framedOut = new BufferedOutputStream(socket.getOutputStream());
+        } else {
+            out = new ObjectOutputStream(socket.getOutputStream());
+            in = new ObjectInputStream(input);
+        }
+    }
+
+    private void handle(Message message) throws IOException {
+        switch (message.getType()) {
+            case REGISTER -> {
+                RegisterMessage register = (RegisterMessage) message;
+                id = register.getUserId();
+                binaryCodec = framed && register.isBinaryCodec();
+                send(new RegisterMessage("bot", id, binaryCodec));
+                send(new JoinQueueMessage());
+            }
+            case BUILDING_PHASE_STARTS -> {
+                state = ((GameBuildingStartMessage) message).getGameState();
+                awaitingSync = false;
+                movedAtSequence = -1;
+                ArrayList<Ship> ships = ShipPlacementHelper.createRandomizedGameBoard(state.getBoardSize(),
+                        state.getAvailableShips(), new ArrayList<>());
+                send(new PlayerUpdateShipPlacement(ships));
+                send(new PlayerReadyMessage(true));
+            }
+            case GAME_IN_GAME_START -> {
+                state = ((GameInGameStartMessage) message).getGameState();
+                moveIfMyTurn();
+            }
+            case TURN_CHANGE -> {
+                if (apply(((PlayerTurnChangeMessage) message).getDelta())) moveIfMyTurn();
+            }
+            case MOVE_MADE -> {
+                GameStateDelta delta = ((MoveMadeMessage) message).getDelta();
+                if (id.equals(delta.getMover()) && moveSentAt != 0) {
+                    stats.moveMillis.record((System.nanoTime() - moveSentAt) / 1_000_000);
+                    moveSentAt = 0;
+                }
+                if (apply(delta)) moveIfMyTurn();
+            }
+            case GAME_STATE_SYNC -> {
+                state = ((GameStateSyncMessage) message).getGameState();
+                awaitingSync = false;
+                moveIfMyTurn();
+            }
+            case GAME_OVER -> {
+                GameState last = ((GameOverMessage) message).getGameState();
+                // The deciding move is the last delta; a state behind it was never caught up
+                if (state != null && state.getSequence() < last.getSequence()) stats.staleStates.incrementAndGet();
+                state = null;
+                stats.gamesFinished.incrementAndGet();
+                if (++gamesPlayed < games) send(new JoinQueueMessage());
+            }
+            case ERROR -> {
+                // An invalid move was rejected, e.g. one sent with an outdated state; try another cell
+                System.err.println("Bot " + id + " got error " + ((ErrorMessage) message).getError());
+                movedAtSequence = -1;
+                moveSentAt = 0;
+                moveIfMyTurn();
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Applies a delta like the client does.
+     * @return true if the state changed
+     */
+    private boolean apply(GameStateDelta delta) throws IOException {
+        if (state == null || delta.getSequence() <= state.getSequence() || awaitingSync) return false;
+
+        if (!state.isNextDelta(delta) || random.nextDouble() < dropDeltaRate) {
+            awaitingSync = true;
+            stats.syncRequests.incrementAndGet();
+            send(new GameStateSyncRequestMessage(state.getSequence()));
+            return false;
+        }
+        state = state.applyDelta(delta);
+        return true;
+    }
+
+    private void moveIfMyTurn() throws IOException {
+        if (state == null || awaitingSync || state.getStatus() != GameState.GameStatus.IN_GAME) return;
+        if (!state.isPlayersTurn(id) || movedAtSequence == state.getSequence()) return;
+
+        int size = state.getBoardSize();
+        Set<Integer> fired = new HashSet<>();
+        for (Move move : state.getPlayer(id).getMoves()) {
+            for (Cell cell : move.getAffectedCells()) fired.add(cell.getY() * size + cell.getX());
+        }
+        List<Integer> free = new ArrayList<>();
+        for (int cell = 0; cell < size * size; cell++) {
+            if (!fired.contains(cell)) free.add(cell);
+        }
+        if (free.isEmpty()) return;
+        int cell = free.get(random.nextInt(free.size()));
+
+        Move move = new Move(cell % size, cell / size);
+        move.computeAffectedCells(size);
+        movedAtSequence = state.getSequence();
+        moveSentAt = System.nanoTime();
+        stats.moves.incrementAndGet();
+        send(new PlayerMoveMessage(move));
+    }
+
+    private Message read() throws IOException, ClassNotFoundException {
+        if (framed) return Frames.read(framedIn);
+        return (Message) in.readObject();
+    }
+
+    private void send(Message message) throws IOException {
+        if (framed) {
+            framedOut.write(Frames.encode(message, binaryCodec));
+            framedOut.flush();
+            return;
+        }
+        out.reset();
+        out.writeObject(message);
+        out.flush();
+    }
+
+    /**
+     * Starts bots on daemon platform threads, a few milliseconds apart.
+     * @param count the number of bots
+     * @param host the host of the server
+     * @param port the port of the server
+     * @param games the number of games per bot
+     * @param dropDeltaRate the share of deltas each bot ignores on purpose
+     * @param stats the counters of the run
+     * @return the latch that reaches zero once all bots disconnected
+     */
+    public static CountDownLatch startBots(int count, String host, int port, int games, double dropDeltaRate, Stats stats) {
+        CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            Thread bot = new Thread(new BotClient(host, port, games, dropDeltaRate, stats, done), "bot-" + i);
+            bot.setDaemon(true); // a bot of a stopped server must not keep the run alive
+            bot.start();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2)); // stay within the accept backlog of the server
+        }
+        return done;
+    }
+}
@@ -0,0 +1,145 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compares {@link Server#getGame(ServerPlayer)}, a lookup in the index from player id to game, with the scan over
+ * all games under a global lock that it replaced. The lookup runs for every message a player sends, so it is
+ * measured with one reader thread and with several reader threads at once, for a growing number of running games.
+ * <p>
+ * Usage: {@code GameLookupBenchmark [threads]}, 8 reader threads by default.
+ */
+public class GameLookupBenchmark {
+
+    private static final int[] GAME_COUNTS = {10, 100, 1000, 5000};
+    private static final long RUN_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * The lookup before the index: every registered game is checked while holding the games lock.
+     */
+    private static class ScanLookup {
+        private final List<BattleShipGame> games;
+        private final ReentrantLock gamesLock = new ReentrantLock();
+
+        ScanLookup(List<BattleShipGame> games) {
+            this.games = games;
+        }
+
+        BattleShipGame getGame(ServerPlayer player) {
+            gamesLock.lock();
+            try {
+                for (BattleShipGame game : games) {
+                    if (game == null) continue;
+                    if (game.getPlayerA() != null && game.getPlayerA().getId().equals(player.getId())) {
+                        return game;
+                    }
+                    if (game.getPlayerB() != null && game.getPlayerB().getId().equals(player.getId())) {
+                        return game;
+                    }
+                }
+                return null;
+            } finally {
+                gamesLock.unlock();
+            }
+        }
+    }
+
+    private interface Lookup {
+        BattleShipGame getGame(ServerPlayer player);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+
+        ServerOptions options = new ServerOptions();
+        options.setHeadless(true);
+        Server server = new Server(options); // the server is not started, games only run their mailboxes
+
+        List<ServerPlayer> players = new ArrayList<>();
+        System.out.printf("%8s %8s %16s %16s %9s%n", "games", "threads", "scan ns/lookup", "index ns/lookup", "speedup");
+        for (int games : GAME_COUNTS) {
+            addGames(server, players, games - server.getGames().size());
+
+            ScanLookup scan = new ScanLookup(server.getGames());
+            for (int readers : new int[]{1, threads}) {
+                check(scan::getGame, server, players);
+                double scanNanos = measure(scan::getGame, players, readers);
+                double indexNanos = measure(server::getGame, players, readers);
+                System.out.printf("%8d %8d %16.1f %16.1f %8.1fx%n",
+                        games, readers, scanNanos, indexNanos, scanNanos / indexNanos);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Registers games with two players each and waits until every game has accepted its players.
+     */
+    private static void addGames(Server server, List<ServerPlayer> players, int count) {
+        List<BattleShipGame> added = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BattleShipGame game = new BattleShipGame(server);
+            server.registerGame(game);
+            for (int p = 0; p < 2; p++) {
+                ServerPlayer player = new ServerPlayer(new NullConnection(), server);
+                players.add(player);
+                game.addPlayer(player);
+            }
+            added.add(game);
+        }
+        for (BattleShipGame game : added) {
+            while (game.getPlayerB() == null) LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    /**
+     * Makes sure both lookups find the same game for every player before they are timed.
+     */
+    private static void check(Lookup scan, Server server, List<ServerPlayer> players) {
+        for (ServerPlayer player : players) {
+            if (scan.getGame(player) != server.getGame(player)) {
+                throw new IllegalStateException("Lookups disagree for player " + player.getId());
+            }
+        }
+    }
+
+    /**
+     * Looks up random players on several threads for a fixed time.
+     * @return the average time of one lookup per thread in nanoseconds
+     */
+    private static double measure(Lookup lookup, List<ServerPlayer> players, int readers) throws InterruptedException {
+        AtomicLong lookups = new AtomicLong();
+        AtomicLong nanos = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(readers);
+
+        for (int t = 0; t < readers; t++) {
+            Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long found = 0;
+                long start = System.nanoTime();
+                long end = start + RUN_NANOS;
+                long now;
+                do {
+                    for (int i = 0; i < 64; i++) {
+                        if (lookup.getGame(players.get(random.nextInt(players.size()))) != null) found++;
+                    }
+                    count += 64;
+                } while ((now = System.nanoTime()) < end);
+                if (found != count) throw new IllegalStateException("A player had no game");
+                lookups.addAndGet(count);
+                nanos.addAndGet(now - start);
+                done.countDown();
+            });
+        }
+        done.await();
+        return (double) nanos.get() / lookups.get();
+    }
+}
@@ -0,0 +1,140 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same load against a server on platform threads and against one started with --virtual and compares them.
+ * Each server runs in its own JVM; the bots play through the queue on sockets like real clients.
+ * The server threads are taken from the periodic metrics dump, so virtual threads are not counted there;
+ * the resident memory is read from /proc where available.
+ * <p>
+ * Usage: {@code LoadComparison [bots] [seconds]}, 400 bots for 60 seconds by default.
+ */
+public class LoadComparison {
+
+    /**
+     * What one run measured.
+     */
+    private static class Result {
+        String mode;
+        int gamesFinished;
+        long moves;
+        long moveP50;
+        long moveP99;
+        String threads = "?";
+        String peakMemory = "?";
+        int failures;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int bots = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform", bots, seconds));
+        results.add(run("virtual", bots, seconds, "--virtual"));
+
+        System.out.println();
+        System.out.println(bots + " bots, " + seconds + " s per run");
+        System.out.printf("%-9s %8s %8s %10s %10s %-30s %12s %9s%n",
+                "mode", "games", "moves", "move p50", "move p99", "server platform threads", "peak RSS", "failures");
+        for (Result result : results) {
+            System.out.printf("%-9s %8d %8d %8d ms %8d ms %-30s %12s %9d%n", result.mode, result.gamesFinished,
+                    result.moves, result.moveP50, result.moveP99, result.threads, result.peakMemory, result.failures);
+        }
+        System.exit(0);
+    }
+
+    private static Result run(String mode, int bots, int seconds, String... serverArgs) throws Exception {
+        int port;
+        try (ServerSocket probe = new ServerSocket(0)) {
+            port = probe.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>(List.of(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-cp", System.getProperty("java.class.path"),
+                "server.Server", "--p", String.valueOf(port), "--headless", "--metrics-interval", "5"));
+        command.addAll(List.of(serverArgs));
+        Process server = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        Result result = new Result();
+        result.mode = mode;
+        Thread reader = new Thread(() -> readOutput(server, result), "server-output");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            waitForPort(port);
+            System.out.println("Running " + mode + " with " + bots + " bots on port " + port);
+
+            BotClient.Stats stats = new BotClient.Stats();
+            BotClient.startBots(bots, "localhost", port, Integer.MAX_VALUE, 0, stats);
+            long peakRss = 0;
+            for (int i = 0; i < seconds; i++) {
+                TimeUnit.SECONDS.sleep(1);
+                peakRss = Math.max(peakRss, residentKilobytes(server.pid()));
+            }
+            TimeUnit.SECONDS.sleep(5); // one more metrics dump
+
+            result.gamesFinished = stats.getGamesFinished();
+            result.moves = stats.getMoves();
+            result.moveP50 = stats.getMoveMillis().getPercentile(50);
+            result.moveP99 = stats.getMoveMillis().getPercentile(99);
+            result.failures = stats.getFailures();
+            if (peakRss > 0) result.peakMemory = (peakRss / 1024) + " MB";
+        } finally {
+            server.destroy();
+            server.waitFor(10, TimeUnit.SECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the thread line of the latest metrics dump and drops everything else the server prints.
+     */
+    private static void readOutput(Process server, Result result) {
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(server.getInputStream()))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                if (line.startsWith("threads=")) result.threads = line;
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void waitForPort(int port) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (System.nanoTime() < deadline) {
+            try {
+                new Socket("localhost", port).close(); // the probe connects as a player and leaves again
+                return;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Server did not start on port " + port);
+    }
+
+    /**
+     * Returns the resident set size of a process in kilobytes, or 0 if /proc is not available.
+     */
+    private static long residentKilobytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        } catch (IOException | RuntimeException ignored) {
+        }
+        return 0;
+    }
+}
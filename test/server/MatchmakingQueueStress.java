@@ -0,0 +1,159 @@
+package server;
+
+import utils.TestSupport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stress test of {@link MatchmakingQueue}: 299 threads join and leave the queue with their own players while one
+ * matchmaker thread pairs the waiting entries, as the {@link Matchmaker} does. A pair fails whenever one of its
+ * players left in the meantime, so {@link MatchmakingQueue#takePair} has to put the other one back many times.
+ * <p>
+ * Checked during the run: no entry is paired twice and no player is paired with themselves. Checked once all threads
+ * stopped: every queued player is offered to the matchmaker again exactly once, so no rolled back entry got lost,
+ * and every join ended in exactly one of leave, game or still waiting. Exits with status 1 if a check fails.
+ * <p>
+ * Usage: {@code MatchmakingQueueStress [seconds]}, 5 seconds by default.
+ */
+public class MatchmakingQueueStress {
+
+    private static final int THREADS = 300; // including the matchmaker
+    private static final int PLAYERS_PER_THREAD = 4;
+
+    private static volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        checkRollback();
+
+        MatchmakingQueue queue = new MatchmakingQueue();
+        int playerThreads = THREADS - 1;
+        ServerPlayer[] players = new ServerPlayer[playerThreads * PLAYERS_PER_THREAD];
+        Map<ServerPlayer, Integer> index = new HashMap<>();
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new ServerPlayer(new NullConnection(), null);
+            index.put(players[i], i);
+        }
+
+        // Each counter is written by one thread only and read after that thread was joined
+        int[] joined = new int[players.length];
+        int[] left = new int[players.length];
+        int[] paired = new int[players.length];
+        long[] pairs = new long[2]; // taken, failed
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < playerThreads; t++) {
+            int first = t * PLAYERS_PER_THREAD;
+            threads.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running) {
+                    int i = first + random.nextInt(PLAYERS_PER_THREAD);
+                    if (random.nextBoolean()) {
+                        if (queue.add(players[i], null)) joined[i]++;
+                    } else {
+                        ServerPlayer removed = queue.remove(players[i].getId());
+                        if (removed != null && removed != players[i]) TestSupport.fail("remove returned another player");
+                        if (removed != null) left[i]++;
+                    }
+                    // Players act at human speed compared to the queue, and the matchmaker must get its turn
+                    LockSupport.parkNanos(random.nextLong(TimeUnit.MICROSECONDS.toNanos(100)));
+                }
+            }));
+        }
+
+        Thread matchmaker = Thread.ofPlatform().start(() -> {
+            Set<MatchmakingQueue.Entry> taken = new HashSet<>();
+            while (running) {
+                // The order is read while players leave and join again, so the old entry of a player who left and
+                // the new one may both be listed; the old one was taken before the new one was added
+                List<MatchmakingQueue.Entry> waiting = queue.waiting();
+                for (int i = 0; i + 1 < waiting.size(); i += 2) {
+                    MatchmakingQueue.Entry first = waiting.get(i);
+                    MatchmakingQueue.Entry second = waiting.get(i + 1);
+                    if (queue.takePair(first, second)) {
+                        if (first.getPlayer() == second.getPlayer()) TestSupport.fail("a player was paired with themselves");
+                        if (!taken.add(first) || !taken.add(second)) TestSupport.fail("an entry was paired twice");
+                        paired[index.get(first.getPlayer())]++;
+                        paired[index.get(second.getPlayer())]++;
+                        pairs[0]++;
+                    } else {
+                        pairs[1]++;
+                    }
+                }
+            }
+        });
+        threads.add(matchmaker);
+
+        TimeUnit.SECONDS.sleep(seconds);
+        running = false;
+        for (Thread thread : threads) thread.join();
+
+        // Every queued player must be offered again, otherwise a failed pair left its entry taken
+        List<MatchmakingQueue.Entry> waiting = queue.waiting();
+        Set<ServerPlayer> offered = new HashSet<>();
+        for (MatchmakingQueue.Entry entry : waiting) {
+            if (!offered.add(entry.getPlayer())) TestSupport.fail("a player is waiting twice");
+        }
+        if (offered.size() != queue.size()) {
+            TestSupport.fail(queue.size() + " players queued, but " + offered.size() + " offered to the matchmaker");
+        }
+
+        long joins = 0;
+        long racedLeaves = 0;
+        for (int i = 0; i < players.length; i++) {
+            int queued = queue.contains(players[i]) ? 1 : 0;
+            if (queued == 1 && !offered.contains(players[i])) TestSupport.fail("a queued player is not offered to the matchmaker");
+            // A player who leaves while being paired may still get the game, so a join can count as both
+            int ended = left[i] + paired[i] + queued;
+            if (ended < joined[i]) TestSupport.fail("player " + i + " joined " + joined[i] + " times, but only " + ended + " joins ended");
+            if (paired[i] + queued > joined[i] || left[i] + queued > joined[i]) {
+                TestSupport.fail("player " + i + " joined " + joined[i] + " times, left " + left[i] + ", paired " + paired[i]);
+            }
+            joins += joined[i];
+            racedLeaves += ended - joined[i];
+        }
+
+        System.out.println(joins + " joins, " + pairs[0] + " pairs taken, " + pairs[1] + " pairs failed, "
+                + racedLeaves + " leaves while being paired, " + queue.size() + " still queued");
+        System.out.println("OK");
+        System.exit(0);
+    }
+
+    /**
+     * A failed pair must put the entry of the player who is still queued back, and only that one.
+     */
+    private static void checkRollback() {
+        MatchmakingQueue queue = new MatchmakingQueue();
+        ServerPlayer a = new ServerPlayer(new NullConnection(), null);
+        ServerPlayer b = new ServerPlayer(new NullConnection(), null);
+        ServerPlayer c = new ServerPlayer(new NullConnection(), null);
+        queue.add(a, null);
+        queue.add(b, null);
+        List<MatchmakingQueue.Entry> waiting = queue.waiting();
+
+        // The second player left: the first one stays queued and can be paired with someone else
+        queue.remove(b.getId());
+        if (queue.takePair(waiting.get(0), waiting.get(1))) TestSupport.fail("paired a player who left");
+        if (!queue.contains(a) || queue.waiting().size() != 1) TestSupport.fail("the first player was not put back");
+        queue.add(c, null);
+        waiting = queue.waiting();
+        if (!queue.takePair(waiting.get(0), waiting.get(1)) || queue.size() != 0) TestSupport.fail("the first player could not be paired again");
+
+        // The first player left: the pair fails without taking the second one
+        queue.add(a, null);
+        queue.add(b, null);
+        waiting = queue.waiting();
+        queue.remove(a.getId());
+        if (queue.takePair(waiting.get(0), waiting.get(1))) TestSupport.fail("paired a player who left");
+        if (!queue.contains(b) || queue.waiting().size() != 1) TestSupport.fail("the second player was taken by a failed pair");
+    }
+}
@@ -0,0 +1,28 @@
+package server;
+
+import protocol.messages.Message;
+import protocol.transport.EncodedMessage;
+import server.transport.Connection;
+
+/**
+ * A connection that discards every message, for players that only exist inside the server.
+ */
+class NullConnection implements Connection {
+
+    @Override
+    public void sendMessage(Message message) {
+    }
+
+    @Override
+    public void sendMessage(EncodedMessage message) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String getIp() {
+        return "127.0.0.1";
+    }
+}
@@ -0,0 +1,200 @@
+package server.transport;
+
+import protocol.ClientPlayer;
+import protocol.ErrorType;
+import protocol.GameOptions;
+import protocol.GameState;
+import protocol.GameStateDelta;
+import protocol.game.Move;
+import protocol.messages.ErrorMessage;
+import protocol.messages.Message;
+import protocol.messages.game.GameOverMessage;
+import protocol.messages.game.JoinGameMessage;
+import protocol.messages.game.building.GameBuildingStartMessage;
+import protocol.messages.game.ingame.MoveMadeMessage;
+import protocol.messages.game.ingame.PlayerHoverMessage;
+import protocol.transport.EncodedMessage;
+import server.Server;
+import server.ServerOptions;
+import utils.TestSupport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Soak run of a blocking connection: plays many games worth of messages through one {@link SocketConnection}
+ * to a client on a loopback socket and checks that the object stream does not keep them alive.
+ * <ul>
+ *     <li>the handle table is empty after every reset of the stream,</li>
+ *     <li>the client decodes every message, across all resets and shared broadcast records,</li>
+ *     <li>the used heap after a full collection does not grow between the warm-up and the last game.</li>
+ * </ul>
+ * Exits with status 1 if a check fails.
+ * <p>
+ * Usage: {@code SocketConnectionSoak [games]}, 500 games by default.
+ */
+public class SocketConnectionSoak {
+
+    private static final int WARM_UP_GAMES = 50;
+    private static final long MAX_HEAP_GROWTH = 8L * 1024 * 1024;
+
+    private static long sent = 0;
+    private static long checkedResets = 0;
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+        ServerOptions options = new ServerOptions();
+        options.setHeadless(true);
+        Server server = new Server(options); // only its metrics are used, the server is not started
+
+        AtomicLong received = new AtomicLong();
+        AtomicReference<Exception> clientError = new AtomicReference<>();
+
+        try (ServerSocket listener = new ServerSocket(0);
+             Socket client = new Socket("localhost", listener.getLocalPort());
+             Socket accepted = listener.accept()) {
+
+            SocketConnection connection = new SocketConnection(accepted, options,
+                    Thread.ofPlatform().daemon().factory(), server.getMetrics());
+
+            new ObjectOutputStream(client.getOutputStream()).flush(); // the header the connection waits for
+            Thread reader = Thread.ofPlatform().daemon().start(() -> {
+                try (ObjectInputStream in = new ObjectInputStream(client.getInputStream())) {
+                    while (true) {
+                        in.readObject();
+                        received.incrementAndGet();
+                    }
+                } catch (EOFException ignored) {
+                } catch (IOException | ClassNotFoundException e) {
+                    clientError.set(e);
+                }
+            });
+            connection.open();
+
+            long heapAfterWarmUp = 0;
+            for (int game = 1; game <= games; game++) {
+                playGame(connection);
+                awaitDrained(connection, received);
+
+                if (game == Math.min(WARM_UP_GAMES, games)) heapAfterWarmUp = usedHeap();
+            }
+            long heapAtEnd = usedHeap();
+
+            connection.close();
+            reader.join(TimeUnit.SECONDS.toMillis(5));
+
+            long expected = sent - connection.getMergedHovers();
+            System.out.println(games + " games, " + sent + " messages sent, " + connection.getMergedHovers()
+                    + " hovers merged, " + received.get() + " received");
+            System.out.println(connection.getStreamResets() + " stream resets, handle table empty after "
+                    + checkedResets + " of them, peak " + connection.getPeakRetainedHandles() + " handles");
+            System.out.println("Used heap after game " + Math.min(WARM_UP_GAMES, games) + ": " + heapAfterWarmUp / 1024
+                    + " KB, after game " + games + ": " + heapAtEnd / 1024 + " KB");
+
+            if (clientError.get() != null) TestSupport.fail("the client could not decode a message: " + clientError.get());
+            if (received.get() != expected) TestSupport.fail("the client received " + received.get() + " of " + expected + " messages");
+            if (heapAtEnd - heapAfterWarmUp > MAX_HEAP_GROWTH) TestSupport.fail("the heap grew by " + (heapAtEnd - heapAfterWarmUp) / 1024 + " KB");
+        }
+        System.out.println("OK");
+        System.exit(0);
+    }
+
+    /**
+     * Sends the messages of one game as the server does: the states and deltas are broadcast as shared records,
+     * errors and hovers are sent to the player alone.
+     */
+    private static void playGame(SocketConnection connection) throws IOException {
+        ClientPlayer a = new ClientPlayer(UUID.randomUUID(), "a");
+        ClientPlayer b = new ClientPlayer(UUID.randomUUID(), "b");
+
+        GameState state = new GameState(new GameOptions(), TestSupport.availableShips(), 1000);
+        state.setPlayerA(a);
+        state.setPlayerB(b);
+        int size = state.getBoardSize();
+
+        send(connection, new JoinGameMessage(state));
+        broadcast(connection, new GameBuildingStartMessage(state));
+
+        List<Integer> cells = new ArrayList<>();
+        for (int cell = 0; cell < size * size; cell++) cells.add(cell);
+        Collections.shuffle(cells);
+
+        for (int i = 0; i < cells.size(); i++) {
+            int cell = cells.get(i);
+            UUID mover = i % 2 == 0 ? a.getId() : b.getId();
+            Move move = new Move(cell % size, cell / size);
+            move.computeAffectedCells(size);
+
+            GameState next = new GameState(state);
+            next.addMove(mover, move);
+            next.setSequence(state.getSequence() + 1);
+            broadcast(connection, new MoveMadeMessage(GameStateDelta.between(state, next, mover, move)));
+            state = next;
+
+            if (i % 3 == 0) send(connection, new PlayerHoverMessage(mover, move.getX(), move.getY(), move.getAffectedCells()));
+            if (i % 7 == 0) send(connection, new ErrorMessage(ErrorType.INVALID_MOVE));
+        }
+
+        state.setStatus(GameState.GameStatus.GAME_OVER);
+        broadcast(connection, new GameOverMessage(state));
+    }
+
+    private static void send(SocketConnection connection, Message message) throws IOException {
+        long resets = connection.getStreamResets();
+        connection.sendMessage(message);
+        sent++;
+        checkReset(connection, resets);
+    }
+
+    private static void broadcast(SocketConnection connection, Message message) throws IOException {
+        long resets = connection.getStreamResets();
+        connection.sendMessage(new EncodedMessage(message));
+        sent++;
+        checkReset(connection, resets);
+    }
+
+    /**
+     * A reset during the last send must leave the handle table empty; nothing is written after it in the same call.
+     */
+    private static void checkReset(SocketConnection connection, long resetsBefore) {
+        if (connection.getStreamResets() == resetsBefore) return;
+        if (connection.getRetainedHandles() != 0) {
+            TestSupport.fail(connection.getRetainedHandles() + " handles retained after reset " + connection.getStreamResets());
+        }
+        checkedResets++;
+    }
+
+    /**
+     * Waits until the client has read everything, so the send queue never fills up.
+     */
+    private static void awaitDrained(SocketConnection connection, AtomicLong received) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        // A queued hover is dropped when a newer one replaces it
+        while (received.get() < sent - connection.getMergedHovers() || connection.getQueuedMessages() > 0) {
+            if (System.nanoTime() > deadline) TestSupport.fail("the client stopped reading at message " + received.get());
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
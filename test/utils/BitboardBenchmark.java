@@ -0,0 +1,263 @@
+package utils;
+
+import protocol.ClientPlayer;
+import protocol.Ship;
+import protocol.ShipPlacementHelper;
+import protocol.game.Cell;
+import protocol.game.Move;
+import protocol.game.items.AirStrikeItem;
+import protocol.game.items.RadarItem;
+import protocol.game.items.SeaBombItem;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hit, radar and sunken-ship checks on {@link Bitboard}s, {@link Fleet}s and {@link TargetBoard}s
+ * with the checks they replaced, which compared every affected cell with every cell of every ship and replayed
+ * all moves of a player on each call. {@link Reference} holds those checks, working on lists of ships.
+ * <p>
+ * First both are run side by side on random games and every result is compared; a difference exits with status 1.
+ * Then each check is timed on a 20x20 board after a growing number of moves per player.
+ * <p>
+ * Usage: {@code BitboardBenchmark [games]}, 300 random games for the comparison by default.
+ */
+public class BitboardBenchmark {
+
+    private static final int BOARD_SIZE = 20;
+    private static final int[] MOVE_COUNTS = {10, 100, 400};
+    private static final long RUN_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+
+    /**
+     * Ship-by-ship versions of the sunken-ship, hit-flag, radar and hit checks, copied from GameState, ItemManager
+     * and MoveManager before they moved to bitboards.
+     */
+    static class Reference {
+
+        static ArrayList<Ship> getSunkenShips(int boardSize, ClientPlayer player, List<Ship> targetShips) {
+            ArrayList<Ship> sunkenShips = new ArrayList<>();
+            ArrayList<Point> totalHitCells = new ArrayList<>();
+
+            for (Move move : player.getMoves()) {
+                move.computeAffectedCells(boardSize);
+                for (Cell cell : move.getAffectedCells()) {
+                    totalHitCells.add(new Point(cell.getX(), cell.getY()));
+                }
+            }
+
+            for (Ship ship : targetShips) {
+                ArrayList<Point> hitCells = new ArrayList<>();
+                for (Point p : ship.getOccupiedCells()) {
+                    for (Point c : totalHitCells) {
+                        if (p.x == c.x && p.y == c.y) {
+                            hitCells.add(p);
+                            break;
+                        }
+                    }
+                }
+                if (hitCells.size() == ship.getOccupiedCells().size()) sunkenShips.add(ship);
+            }
+            return sunkenShips;
+        }
+
+        static void updateHitList(int boardSize, ClientPlayer player, List<Ship> targetShips) {
+            for (Move move : player.getMoves()) {
+                move.computeAffectedCells(boardSize);
+                for (Cell cell : move.getAffectedCells()) {
+                    boolean hit = false;
+                    for (Ship ship : targetShips) {
+                        for (Point p : ship.getOccupiedCells()) {
+                            if (p.x == cell.getX() && p.y == cell.getY()) {
+                                hit = true;
+                                break;
+                            }
+                        }
+                        if (hit) break;
+                    }
+                    cell.setHit(hit);
+                }
+            }
+        }
+
+        static int getAmountOfShipsIn3x3Area(List<Ship> ships, int x, int y) {
+            int amountOfShips = 0;
+            ArrayList<Point> pointArrayList = new ArrayList<>();
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) pointArrayList.add(new Point(x + dx, y + dy));
+            }
+            for (Point point : pointArrayList) {
+                for (Ship ship : ships) {
+                    for (Point cell : ship.getOccupiedCells()) {
+                        if (cell.getX() == point.x && cell.getY() == point.y) {
+                            amountOfShips++;
+                            break;
+                        }
+                    }
+                }
+            }
+            return amountOfShips;
+        }
+
+        static boolean moveHasHit(List<Ship> ships, Move move) {
+            for (Cell cell : move.getAffectedCells()) {
+                for (Ship ship : ships) {
+                    for (Point p : ship.getOccupiedCells()) {
+                        if (p.x == cell.getX() && p.y == cell.getY()) return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        Log.setLevel(Log.Level.ERROR);
+        Random random = new Random(11);
+
+        long moves = compare(random, games);
+        System.out.println("Same results as the reference after each of " + moves + " moves in " + games + " games");
+
+        System.out.println();
+        System.out.printf("%-36s %7s %14s %14s %9s%n", "check, 20x20 board", "moves", "reference ns", "bitboard ns", "speedup");
+        for (int count : MOVE_COUNTS) {
+            benchmark(random, count);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Plays random games and compares every check after every move.
+     * @return the number of compared moves
+     */
+    private static long compare(Random random, int games) {
+        long compared = 0;
+        for (int game = 0; game < games; game++) {
+            ArrayList<Ship> ships = ShipPlacementHelper.createRandomizedGameBoard(BOARD_SIZE, TestSupport.availableShips(), new ArrayList<>());
+            Fleet fleet = new Fleet(ships, BOARD_SIZE);
+            TargetBoard target = new TargetBoard(fleet);
+            ClientPlayer player = new ClientPlayer(UUID.randomUUID(), "player");
+
+            int moves = 1 + random.nextInt(250);
+            for (int i = 0; i < moves; i++) {
+                Move move = randomMove(random);
+                player.getMoves().add(move);
+                boolean hit = target.apply(move);
+                int radar = move.getRadarShipsIn3x3Area();
+                List<Boolean> flags = hitFlags(player);
+
+                if (hit != Reference.moveHasHit(ships, move)) fail("hit", game, i);
+                if (move.getRadarItem() != null && radar != Reference.getAmountOfShipsIn3x3Area(ships, move.getX(), move.getY())) {
+                    fail("radar", game, i);
+                }
+                if (!Reference.getSunkenShips(BOARD_SIZE, player, ships).equals(target.getSunkenShips())) fail("sunken ships", game, i);
+
+                Reference.updateHitList(BOARD_SIZE, player, ships);
+                if (!hitFlags(player).equals(flags)) fail("hit flags", game, i);
+                compared++;
+            }
+        }
+        return compared;
+    }
+
+    /**
+     * Times each check after the given number of moves per player. A move of the server used to run every
+     * replaying check for both players; now it applies the move to one target board.
+     */
+    private static void benchmark(Random random, int moveCount) {
+        ArrayList<Ship> shipsA = ShipPlacementHelper.createRandomizedGameBoard(BOARD_SIZE, TestSupport.availableShips(), new ArrayList<>());
+        ArrayList<Ship> shipsB = ShipPlacementHelper.createRandomizedGameBoard(BOARD_SIZE, TestSupport.availableShips(), new ArrayList<>());
+        Fleet fleetA = new Fleet(shipsA, BOARD_SIZE);
+        Fleet fleetB = new Fleet(shipsB, BOARD_SIZE);
+        TargetBoard targetA = new TargetBoard(fleetB);
+        TargetBoard targetB = new TargetBoard(fleetA);
+        ClientPlayer playerA = new ClientPlayer(UUID.randomUUID(), "a");
+        ClientPlayer playerB = new ClientPlayer(UUID.randomUUID(), "b");
+        for (int i = 0; i < moveCount; i++) {
+            Move moveA = randomMove(random);
+            Move moveB = randomMove(random);
+            playerA.getMoves().add(moveA);
+            playerB.getMoves().add(moveB);
+            targetA.apply(moveA);
+            targetB.apply(moveB);
+        }
+        Move last = playerA.getMoves().get(moveCount - 1);
+
+        report("hit of one move", moveCount,
+                TestSupport.cost(() -> Reference.moveHasHit(shipsB, last) ? 1 : 0, RUN_NANOS),
+                TestSupport.cost(() -> {
+                    for (Cell cell : last.getAffectedCells()) {
+                        if (fleetB.isOccupied(cell.getX(), cell.getY())) return 1;
+                    }
+                    return 0;
+                }, RUN_NANOS));
+        report("radar count", moveCount,
+                TestSupport.cost(() -> Reference.getAmountOfShipsIn3x3Area(shipsB, 7, 7), RUN_NANOS),
+                TestSupport.cost(() -> ItemManager.getAmountOfShipsIn3x3Area(fleetB, 7, 7), RUN_NANOS));
+        report("sunken ships of a player", moveCount,
+                TestSupport.cost(() -> Reference.getSunkenShips(BOARD_SIZE, playerA, shipsB).size(), RUN_NANOS),
+                TestSupport.cost(() -> targetA.getSunkenShips().size(), RUN_NANOS));
+
+        // Per move the server uncovered the sunken ships and updated the hit flags and radars of both players,
+        // then checked both for a win; now the move is applied and the counters are read
+        int[] next = {0};
+        report("whole move, both players", moveCount,
+                TestSupport.cost(() -> {
+                    long sink = Reference.getSunkenShips(BOARD_SIZE, playerA, shipsB).size()
+                            + Reference.getSunkenShips(BOARD_SIZE, playerB, shipsA).size();
+                    Reference.updateHitList(BOARD_SIZE, playerA, shipsB);
+                    Reference.updateHitList(BOARD_SIZE, playerB, shipsA);
+                    for (Move move : playerA.getMoves()) {
+                        if (move.getRadarItem() != null) sink += Reference.getAmountOfShipsIn3x3Area(shipsB, move.getX(), move.getY());
+                    }
+                    for (Move move : playerB.getMoves()) {
+                        if (move.getRadarItem() != null) sink += Reference.getAmountOfShipsIn3x3Area(shipsA, move.getX(), move.getY());
+                    }
+                    return sink + Reference.getSunkenShips(BOARD_SIZE, playerA, shipsB).size()
+                            + Reference.getSunkenShips(BOARD_SIZE, playerB, shipsA).size();
+                }, RUN_NANOS),
+                TestSupport.cost(() -> {
+                    // Re-applying an earlier move of the game costs the same as a new one
+                    Move move = playerA.getMoves().get(next[0]++ % moveCount);
+                    long sink = targetA.apply(move) ? 1 : 0;
+                    return sink + targetA.getSunkenShips().size() + targetB.getSunkenShips().size()
+                            + targetA.getSunkCount() + targetB.getSunkCount();
+                }, RUN_NANOS));
+    }
+
+    private static void report(String check, int moves, TestSupport.Cost reference, TestSupport.Cost bitboard) {
+        System.out.printf("%-36s %7d %14.0f %14.0f %8.0fx%n", check, moves, reference.nanos, bitboard.nanos,
+                reference.nanos / bitboard.nanos);
+    }
+
+    private static List<Boolean> hitFlags(ClientPlayer player) {
+        List<Boolean> flags = new ArrayList<>();
+        for (Move move : player.getMoves()) {
+            for (Cell cell : move.getAffectedCells()) flags.add(cell.isHit());
+        }
+        return flags;
+    }
+
+    private static Move randomMove(Random random) {
+        switch (random.nextInt(10)) {
+            case 0:
+                return new Move(new SeaBombItem(), random.nextInt(BOARD_SIZE - 1), random.nextInt(BOARD_SIZE - 1));
+            case 1:
+                AirStrikeItem.Orientation orientation = random.nextBoolean()
+                        ? AirStrikeItem.Orientation.HORIZONTAL : AirStrikeItem.Orientation.VERTICAL;
+                return new Move(new AirStrikeItem(orientation), random.nextInt(BOARD_SIZE));
+            case 2:
+                return new Move(new RadarItem(), random.nextInt(BOARD_SIZE), random.nextInt(BOARD_SIZE));
+            default:
+                return new Move(random.nextInt(BOARD_SIZE), random.nextInt(BOARD_SIZE));
+        }
+    }
+
+    private static void fail(String check, int game, int move) {
+        TestSupport.fail(check + " differs from the reference in game " + game + " after move " + move);
+    }
+}
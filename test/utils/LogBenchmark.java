@@ -0,0 +1,120 @@
+package utils;
+
+import protocol.ClientPlayer;
+import protocol.GameOptions;
+import protocol.GameState;
+import protocol.game.Move;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures what logging a sent message costs the thread that sends it, before and after {@link Log}:
+ * formatting the game state and printing it synchronously, a disabled DEBUG record built by a supplier,
+ * and an enabled INFO record put into the buffer, on one thread and on several threads at once.
+ * The console is replaced by a stream that discards everything, so only the logging itself is measured.
+ * <p>
+ * Usage: {@code LogBenchmark [threads]}, 8 threads by default.
+ */
+public class LogBenchmark {
+
+    private static final long ROUND_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+    private static final int ROUNDS = 5;
+
+    private interface Call {
+        void run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        GameState state = gameInProgress();
+
+        PrintStream console = System.out;
+        PrintStream sink = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(sink);
+        Log.setLevel(Log.Level.INFO);
+
+        console.println("Game state of " + state.toString().length() + " characters, last of " + ROUNDS + " rounds");
+        console.printf("%-40s %8s %14s%n", "", "threads", "ns/message");
+
+        // The former logging of every sent message
+        Call println = () -> sink.println("[Player x] Sending " + state);
+        Call disabledDebug = () -> Log.debug("Player x", () -> "Sending " + state);
+        Call enabledInfo = () -> Log.info("Game 1", "Player x attempted a move");
+
+        for (int count : new int[]{1, threads}) {
+            report(console, "println of the formatted state", count, measure(println, count));
+            report(console, "disabled debug with a supplier", count, measure(disabledDebug, count));
+            long droppedBefore = Log.getDropped();
+            double info = measure(enabledInfo, count);
+            report(console, "enabled info into the buffer", count, info);
+            console.printf("%-40s %8s %14d%n", "  records dropped, buffer full", "", Log.getDropped() - droppedBefore);
+        }
+        System.exit(0);
+    }
+
+    private static void report(PrintStream console, String name, int threads, double nanos) {
+        console.printf("%-40s %8d %14.1f%n", name, threads, nanos);
+    }
+
+    /**
+     * Runs the call on several threads at once for a fixed time per round.
+     * @return the average time of one call in the last round in nanoseconds, as seen by the calling thread
+     */
+    private static double measure(Call call, int threads) throws InterruptedException {
+        double last = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicLong nanos = new AtomicLong();
+            AtomicLong calls = new AtomicLong();
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long begin = System.nanoTime();
+                    long end = begin + ROUND_NANOS;
+                    long count = 0;
+                    long now;
+                    do {
+                        for (int i = 0; i < 16; i++) call.run();
+                        count += 16;
+                    } while ((now = System.nanoTime()) < end);
+                    nanos.addAndGet(now - begin);
+                    calls.addAndGet(count);
+                    done.countDown();
+                });
+            }
+            start.countDown();
+            done.await();
+            last = (double) nanos.get() / calls.get();
+        }
+        return last;
+    }
+
+    /**
+     * Returns the state of a game on a default board in which both players made 30 moves.
+     */
+    private static GameState gameInProgress() {
+        GameState state = new GameState(new GameOptions(), TestSupport.availableShips(), 123456);
+        ClientPlayer a = new ClientPlayer(UUID.randomUUID(), "a");
+        ClientPlayer b = new ClientPlayer(UUID.randomUUID(), "b");
+        state.setPlayerA(a);
+        state.setPlayerB(b);
+
+        int size = state.getBoardSize();
+        for (int i = 0; i < 60; i++) {
+            Move move = new Move(i % size, i / size);
+            move.computeAffectedCells(size);
+            state.addMove(i % 2 == 0 ? a.getId() : b.getId(), move);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,179 @@
+package utils;
+
+import protocol.ClientPlayer;
+import protocol.GameOptions;
+import protocol.GameState;
+import protocol.game.Cell;
+import protocol.game.Move;
+import protocol.game.items.AirStrikeItem;
+import protocol.game.items.RadarItem;
+import protocol.game.items.SeaBombItem;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Checks that {@link MoveManager} accepts exactly the moves it accepted before the moves of each player were
+ * indexed in a {@link MoveHistory}. {@link Reference} validates by scanning all previous moves of the player,
+ * the way MoveManager did it before.
+ * <p>
+ * Random games on boards from 4x4 to 20x20 are played with random moves, including moves off the board,
+ * air strikes without an orientation and shots whose affected cells were forged by the client or left empty.
+ * Every move is validated by the reference, by a manager built on the histories the server keeps up to date and
+ * by a manager that indexes the move lists itself; the move is only made if it is valid. After every made move
+ * both answers to whether a move is still possible are compared as well. A difference exits with status 1.
+ * <p>
+ * Usage: {@code MoveValidationEquivalenceTest [games] [seed]}, 300 games with seed 23 by default.
+ */
+public class MoveValidationEquivalenceTest {
+
+    private static final int MIN_BOARD_SIZE = 4;
+    private static final int MAX_BOARD_SIZE = 20;
+    private static final int MAX_MOVES = 400;
+
+    /**
+     * Move validation by a linear scan over the move list of the player, copied from the former MoveManager.
+     */
+    static class Reference {
+
+        static boolean isPlayerMoveMoveValid(Move move, ArrayList<Move> moves, int boardSize) {
+            if (move.getX() < 0 || move.getX() >= boardSize || move.getY() < 0 || move.getY() >= boardSize) {
+                return false;
+            }
+            ArrayList<Cell> pointsAlreadyHit = new ArrayList<>();
+
+            if (move.getRadarItem() != null) {
+                for (Move m : moves) {
+                    if (m.getRadarItem() != null && m.getX() == move.getX() && m.getY() == move.getY()) return false;
+                }
+            } else if (move.getSeaBombItem() != null) {
+                for (Move m : moves) {
+                    if (m.getSeaBombItem() != null && m.getX() == move.getX() && m.getY() == move.getY()) return false;
+                }
+                if (move.getX() + 1 >= boardSize || move.getY() + 1 >= boardSize) return false;
+            } else if (move.getAirStrikeItem() != null) {
+                for (Move m : moves) {
+                    if (m.getAirStrikeItem() != null
+                            && m.getAirStrikeItem().getOrientation() == move.getAirStrikeItem().getOrientation()
+                            && m.getRowOrColumn() == move.getRowOrColumn()) {
+                        return false;
+                    }
+                }
+            } else {
+                for (Move m : moves) {
+                    pointsAlreadyHit.addAll(m.getAffectedCells());
+                }
+                for (Cell cell : move.getAffectedCells()) {
+                    for (Cell point : pointsAlreadyHit) {
+                        if (point.getX() == cell.getX() && point.getY() == cell.getY()) return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        static boolean isAMoveStillPossible(GameState gameState) {
+            int boardSize = gameState.getBoardSize();
+            boolean[][] hitCells = new boolean[boardSize][boardSize];
+
+            for (ClientPlayer player : new ClientPlayer[]{gameState.getPlayerA(), gameState.getPlayerB()}) {
+                for (Move move : player.getMoves()) {
+                    move.computeAffectedCells(boardSize);
+                    for (Cell cell : move.getAffectedCells()) {
+                        int x = cell.getX();
+                        int y = cell.getY();
+                        if (x >= 0 && x < boardSize && y >= 0 && y < boardSize) {
+                            hitCells[x][y] = true;
+                        }
+                    }
+                }
+            }
+            for (int x = 0; x < boardSize; x++) {
+                for (int y = 0; y < boardSize; y++) {
+                    if (!hitCells[x][y]) return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 23;
+        Log.setLevel(Log.Level.ERROR);
+
+        Random random = new Random(seed);
+        long validations = 0;
+        long validMoves = 0;
+        for (int game = 1; game <= games; game++) {
+            int size = MIN_BOARD_SIZE + random.nextInt(MAX_BOARD_SIZE - MIN_BOARD_SIZE + 1);
+            GameOptions options = new GameOptions();
+            options.setBoardSize(size);
+            GameState state = new GameState(options, new ArrayList<>(), game);
+            ClientPlayer a = new ClientPlayer(UUID.randomUUID(), "a");
+            ClientPlayer b = new ClientPlayer(UUID.randomUUID(), "b");
+            state.setPlayerA(a);
+            state.setPlayerB(b);
+            TargetBoard boardA = new TargetBoard(new Fleet(new ArrayList<>(), size));
+            TargetBoard boardB = new TargetBoard(new Fleet(new ArrayList<>(), size));
+
+            int moves = 1 + random.nextInt(MAX_MOVES);
+            for (int i = 0; i < moves; i++) {
+                boolean isA = random.nextBoolean();
+                ClientPlayer player = isA ? a : b;
+                Move move = randomMove(random, size);
+
+                boolean expected = Reference.isPlayerMoveMoveValid(move, player.getMoves(), size);
+                boolean fromHistories = new MoveManager(state, boardA.getHistory(), boardB.getHistory())
+                        .isPlayerMoveMoveValid(player.getId(), move);
+                boolean fromMoves = new MoveManager(state).isPlayerMoveMoveValid(player.getId(), move);
+                if (fromHistories != expected || fromMoves != expected) {
+                    TestSupport.fail("game " + game + ", move " + i + " on a " + size + "x" + size + " board: " + move
+                            + " is " + (expected ? "valid" : "invalid") + " for the reference, but "
+                            + fromHistories + " with the server histories and " + fromMoves + " from the move lists");
+                }
+                validations++;
+                if (!expected) continue;
+
+                validMoves++;
+                player.getMoves().add(move);
+                (isA ? boardA : boardB).apply(move);
+                boolean possible = Reference.isAMoveStillPossible(state);
+                if (new MoveManager(state, boardA.getHistory(), boardB.getHistory()).isAMoveStillPossible() != possible) {
+                    TestSupport.fail("game " + game + ", move " + i + ": a move is " + (possible ? "" : "not ")
+                            + "still possible for the reference, but not for the move histories");
+                }
+            }
+        }
+        System.out.println(games + " games, " + validations + " validations, " + validMoves + " valid moves");
+        System.out.println("OK");
+    }
+
+    /**
+     * Returns a random move that may be off the board. A normal shot has its affected cells computed as an honest
+     * client does, forged cells that may lie off the board, or no cells at all.
+     */
+    private static Move randomMove(Random random, int size) {
+        int kind = random.nextInt(12);
+        if (kind == 0) return new Move(new SeaBombItem(), random.nextInt(size + 2) - 1, random.nextInt(size + 2) - 1);
+        if (kind == 1) {
+            AirStrikeItem.Orientation[] orientations = {AirStrikeItem.Orientation.HORIZONTAL, AirStrikeItem.Orientation.VERTICAL, null};
+            return new Move(new AirStrikeItem(orientations[random.nextInt(3)]), random.nextInt(size + 4) - 2);
+        }
+        if (kind == 2) return new Move(new RadarItem(), random.nextInt(size + 2) - 1, random.nextInt(size + 2) - 1);
+
+        Move move = new Move(random.nextInt(size + 2) - 1, random.nextInt(size + 2) - 1);
+        int cells = random.nextInt(4);
+        if (cells == 0) {
+            move.computeAffectedCells(size);
+        } else if (cells == 1) {
+            ArrayList<Cell> forged = new ArrayList<>();
+            for (int i = random.nextInt(3); i > 0; i--) {
+                forged.add(new Cell(random.nextInt(size + 4) - 2, random.nextInt(size + 4) - 2));
+            }
+            move.setAffectedCells(forged);
+        }
+        return move;
+    }
+}
@@ -0,0 +1,230 @@
+package utils;
+
+import client.gui.board.AbstractBattleshipBoard;
+import protocol.Ship;
+import protocol.ShipPlacementHelper;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cached footprint of a {@link Ship} with the footprint it replaced, which built a new list of new
+ * points on every call of {@link Ship#getOccupiedCells()}. {@link Reference} computes that uncached footprint
+ * and runs the collision check of {@link ShipPlacementHelper} and the ship lookup of the boards on it.
+ * <p>
+ * First the cached cells are compared with the computed ones for random fleets, for every ship at every anchor
+ * and after its position and orientation were changed, together with the collision check; a difference exits
+ * with status 1. Then the collision check and the ship lookup of {@link AbstractBattleshipBoard} are timed on a
+ * 20x20 board, with the bytes they allocate per call, as measured by the allocation counter of the current thread.
+ * <p>
+ * Usage: {@code ShipFootprintBenchmark [fleets]}, 200 random fleets for the comparison by default.
+ */
+public class ShipFootprintBenchmark {
+
+    private static final int BOARD_SIZE = 20;
+    private static final long RUN_NANOS = TimeUnit.MILLISECONDS.toNanos(300);
+
+    /**
+     * A fresh list of fresh points per call, computed like Ship did before its cells were cached.
+     */
+    static class Reference {
+
+        static ArrayList<Point> getOccupiedCellsAt(Ship ship, int anchorX, int anchorY) {
+            ArrayList<Point> cells = new ArrayList<>();
+            switch (ship.getOrientation()) {
+                case EAST:
+                    for (int i = 0; i < ship.getLength(); i++) {
+                        for (int j = 0; j < ship.getWidth(); j++) cells.add(new Point(anchorX + i, anchorY + j));
+                    }
+                    break;
+                case WEST:
+                    for (int i = 0; i < ship.getLength(); i++) {
+                        for (int j = 0; j < ship.getWidth(); j++) cells.add(new Point(anchorX - i, anchorY + j));
+                    }
+                    break;
+                case SOUTH:
+                    for (int i = 0; i < ship.getLength(); i++) {
+                        for (int j = 0; j < ship.getWidth(); j++) cells.add(new Point(anchorX + j, anchorY + i));
+                    }
+                    break;
+                case NORTH:
+                    for (int i = 0; i < ship.getLength(); i++) {
+                        for (int j = 0; j < ship.getWidth(); j++) cells.add(new Point(anchorX + j, anchorY - i));
+                    }
+                    break;
+            }
+            return cells;
+        }
+
+        static boolean isCollision(Ship ship, int boardSize, int startRow, int startCol, List<Ship> placedShips) {
+            ArrayList<Point> candidateCells = getOccupiedCellsAt(ship, startCol, startRow);
+            for (Point p : candidateCells) {
+                if (p.x < 0 || p.x >= boardSize || p.y < 0 || p.y >= boardSize) {
+                    return true;
+                }
+                for (Ship other : placedShips) {
+                    if (other == ship) continue;
+                    for (Point sp : getOccupiedCellsAt(other, other.getX(), other.getY())) {
+                        if (p.x == sp.x && p.y == sp.y) return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        static List<Point> getOccupiedCells(Ship ship) {
+            return getOccupiedCellsAt(ship, ship.getX(), ship.getY());
+        }
+
+        static Ship getPlacedShipAt(List<Ship> placedShips, int row, int col) {
+            for (Ship ship : placedShips) {
+                for (Point p : getOccupiedCells(ship)) {
+                    if (p.x == col && p.y == row) return ship;
+                }
+            }
+            return null;
+        }
+    }
+
+    public static void main(String[] args) {
+        int fleets = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        System.setProperty("java.awt.headless", "true");
+        Log.setLevel(Log.Level.ERROR);
+        if (!TestSupport.countsAllocatedBytes()) {
+            TestSupport.fail("the JVM does not count the allocated bytes of a thread");
+        }
+
+        Random random = new Random(25);
+        System.out.println("Compared " + compare(random, fleets) + " footprints and collision checks");
+
+        System.out.printf("%-36s %12s %12s %12s %12s%n", "", "ref ns", "cached ns", "ref bytes", "cached bytes");
+        ArrayList<Ship> fleet = ShipPlacementHelper.createRandomizedGameBoard(BOARD_SIZE, TestSupport.availableShips(), new ArrayList<>());
+
+        // Checking a placement validates every placed ship against the others
+        report("collision check of each placed ship",
+                TestSupport.cost(() -> {
+                    long sink = 0;
+                    for (Ship ship : fleet) {
+                        if (Reference.isCollision(ship, BOARD_SIZE, ship.getY(), ship.getX(), fleet)) sink++;
+                    }
+                    return sink;
+                }, RUN_NANOS),
+                TestSupport.cost(() -> {
+                    long sink = 0;
+                    for (Ship ship : fleet) {
+                        if (ShipPlacementHelper.isCollision(ship, BOARD_SIZE, ship.getY(), ship.getX(), fleet)) sink++;
+                    }
+                    return sink;
+                }, RUN_NANOS));
+
+        // The build board checks the hovered anchor of the selected ship against the placed ones
+        Ship selected = new Ship(9, Ship.Orientation.EAST, 3, 1);
+        report("hovered ship at every anchor",
+                TestSupport.cost(() -> {
+                    long sink = 0;
+                    for (int row = 0; row < BOARD_SIZE; row++) {
+                        for (int col = 0; col < BOARD_SIZE; col++) {
+                            if (Reference.isCollision(selected, BOARD_SIZE, row, col, fleet)) sink++;
+                        }
+                    }
+                    return sink;
+                }, RUN_NANOS),
+                TestSupport.cost(() -> {
+                    long sink = 0;
+                    for (int row = 0; row < BOARD_SIZE; row++) {
+                        for (int col = 0; col < BOARD_SIZE; col++) {
+                            if (ShipPlacementHelper.isCollision(selected, BOARD_SIZE, row, col, fleet)) sink++;
+                        }
+                    }
+                    return sink;
+                }, RUN_NANOS));
+
+        // The boards look up the ship under a cell for every cell they paint; the board is never shown
+        AbstractBattleshipBoard board = new AbstractBattleshipBoard(BOARD_SIZE, new ArrayList<>(fleet), null) {
+        };
+        report("ship lookup of all cells",
+                TestSupport.cost(() -> {
+                    long sink = 0;
+                    for (int row = 0; row < BOARD_SIZE; row++) {
+                        for (int col = 0; col < BOARD_SIZE; col++) {
+                            if (Reference.getPlacedShipAt(fleet, row, col) != null) sink++;
+                        }
+                    }
+                    return sink;
+                }, RUN_NANOS),
+                TestSupport.cost(() -> {
+                    long sink = 0;
+                    for (int row = 0; row < BOARD_SIZE; row++) {
+                        for (int col = 0; col < BOARD_SIZE; col++) {
+                            if (board.getPlacedShipAt(row, col) != null) sink++;
+                        }
+                    }
+                    return sink;
+                }, RUN_NANOS));
+
+        TestSupport.Cost placement = TestSupport.cost(
+                () -> ShipPlacementHelper.createRandomizedGameBoard(BOARD_SIZE, TestSupport.availableShips(), new ArrayList<>()).size(), RUN_NANOS);
+        System.out.printf("%-36s %12s %12.0f %12s %12.0f%n", "random placement of a fleet", "", placement.nanos, "", placement.bytes);
+        System.exit(0);
+    }
+
+    /**
+     * Places random fleets and compares the footprint and the collision check of every ship with the reference.
+     * @return the number of compared footprints
+     */
+    private static long compare(Random random, int fleets) {
+        long compared = 0;
+        for (int f = 0; f < fleets; f++) {
+            ArrayList<Ship> fleet = ShipPlacementHelper.createRandomizedGameBoard(BOARD_SIZE, TestSupport.availableShips(), new ArrayList<>());
+            for (Ship placed : fleet) {
+                List<Point> cells = placed.getOccupiedCells();
+                if (!cells.equals(Reference.getOccupiedCells(placed))) TestSupport.fail("the cells of a placed ship differ from the reference in fleet " + f);
+                if (placed.getOccupiedCells() != cells) TestSupport.fail("the cells of a placed ship are not cached in fleet " + f);
+                try {
+                    cells.add(new Point());
+                    TestSupport.fail("the cached cells can be changed in fleet " + f);
+                } catch (UnsupportedOperationException expected) {
+                }
+
+                // A copy shares the cache until it is moved, the original keeps its cells
+                Ship ship = new Ship(placed);
+                for (Ship.Orientation orientation : Ship.Orientation.values()) {
+                    ship.setOrientation(orientation);
+                    checkCurrentCells(ship, "turning it", f);
+                    for (int row = -1; row <= BOARD_SIZE; row++) {
+                        for (int col = -1; col <= BOARD_SIZE; col++) {
+                            if (!ship.getOccupiedCellsAt(col, row).equals(Reference.getOccupiedCellsAt(ship, col, row))) {
+                                TestSupport.fail("the cells at an anchor differ from the reference in fleet " + f);
+                            }
+                            if (ShipPlacementHelper.isCollision(ship, BOARD_SIZE, row, col, fleet)
+                                    != Reference.isCollision(ship, BOARD_SIZE, row, col, fleet)) {
+                                TestSupport.fail("the collision check differs from the reference in fleet " + f);
+                            }
+                            compared++;
+                        }
+                    }
+                    // Each change must drop the cells cached at the former position
+                    ship.setX(random.nextInt(BOARD_SIZE));
+                    checkCurrentCells(ship, "moving it along x", f);
+                    ship.setY(random.nextInt(BOARD_SIZE));
+                    checkCurrentCells(ship, "moving it along y", f);
+                }
+                if (!placed.getOccupiedCells().equals(cells)) TestSupport.fail("moving a copy changed the original in fleet " + f);
+            }
+        }
+        return compared;
+    }
+
+    private static void checkCurrentCells(Ship ship, String change, int fleet) {
+        if (!ship.getOccupiedCells().equals(Reference.getOccupiedCells(ship))) {
+            TestSupport.fail("the cells of a ship differ from the reference after " + change + " in fleet " + fleet);
+        }
+    }
+
+    private static void report(String check, TestSupport.Cost reference, TestSupport.Cost cached) {
+        System.out.printf("%-36s %12.0f %12.0f %12.0f %12.0f%n", check, reference.nanos, cached.nanos, reference.bytes, cached.bytes);
+    }
+}
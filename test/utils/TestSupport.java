@@ -0,0 +1,93 @@
+package utils;
+
+import protocol.Ship;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixtures shared by the checks and benchmarks in this folder: the fleet of a game, a timing loop that also
+ * counts allocated bytes, and the way a check reports a failure.
+ */
+public final class TestSupport {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results of timed calls are added here, so the JIT cannot drop the calls as unused
+    private static volatile long consumed;
+
+    private TestSupport() {
+    }
+
+    /**
+     * The time and the allocated bytes of one call of a timed check.
+     */
+    public static final class Cost {
+        public final double nanos;
+        /** -1 if the JVM does not count the bytes allocated by a thread. */
+        public final double bytes;
+
+        Cost(double nanos, double bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Returns whether {@link #cost} can count the bytes allocated by the calling thread.
+     */
+    public static boolean countsAllocatedBytes() {
+        return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns the ships every game is played with, as created by the server for a new game.
+     */
+    public static ArrayList<Ship> availableShips() {
+        ArrayList<Ship> ships = new ArrayList<>();
+        ships.add(new Ship(0, Ship.Orientation.NORTH, 5, 1));
+        ships.add(new Ship(1, Ship.Orientation.NORTH, 4, 1));
+        ships.add(new Ship(2, Ship.Orientation.NORTH, 3, 1));
+        ships.add(new Ship(3, Ship.Orientation.NORTH, 2, 2));
+        ships.add(new Ship(4, Ship.Orientation.NORTH, 2, 1));
+        ships.add(new Ship(5, Ship.Orientation.NORTH, 6, 1));
+        return ships;
+    }
+
+    /**
+     * Runs a check repeatedly on the calling thread for a fixed time, twice, so the first run warms it up.
+     * @param check the check to time, its result is consumed
+     * @param runNanos the length of each run
+     * @return the time and the allocated bytes per call of the second run
+     */
+    public static Cost cost(LongSupplier check, long runNanos) {
+        boolean countBytes = countsAllocatedBytes();
+        long sink = 0;
+        Cost cost = null;
+        for (int run = 0; run < 2; run++) {
+            long calls = 0;
+            long allocated = countBytes ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+            long start = System.nanoTime();
+            long now;
+            do {
+                sink += check.getAsLong();
+                calls++;
+            } while ((now = System.nanoTime()) - start < runNanos);
+            double bytes = countBytes ? (double) (THREADS.getCurrentThreadAllocatedBytes() - allocated) / calls : -1;
+            cost = new Cost((double) (now - start) / calls, bytes);
+        }
+        consumed += sink;
+        return cost;
+    }
+
+    /**
+     * Reports a failed check and exits with status 1.
+     * @param reason what was expected and what happened instead
+     */
+    public static void fail(String reason) {
+        System.out.println("FAILED: " + reason);
+        System.exit(1);
+    }
+}